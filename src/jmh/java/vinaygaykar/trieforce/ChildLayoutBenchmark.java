@@ -0,0 +1,162 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import vinaygaykar.trieforce.baseline.HashMapCompressedTrie;
+import vinaygaykar.trieforce.baseline.HashMapSimpleTrie;
+import vinaygaykar.trieforce.compressed.CompressedTrie;
+import vinaygaykar.trieforce.simple.SimpleTrie;
+
+
+/**
+ * Compares the {@link CharTable} child layout of both tries against the original {@link java.util.HashMap} layout.
+ * <p>
+ * Run with {@code ./gradlew jmh} and add {@code -prof gc} to the JMH arguments to compare allocation rates.
+ *
+ * @author Vinay Gaykar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChildLayoutBenchmark {
+
+	@Param({ "100000" })
+	private int size;
+
+	@Param({ "HASHMAP_SIMPLE", "SIMPLE", "HASHMAP_COMPRESSED", "COMPRESSED" })
+	private Layout layout;
+
+	private List<String> keys;
+
+	private List<String> prefixes;
+
+	private Target target;
+
+	private int cursor;
+
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		keys = Corpus.keys(size, 42L);
+		prefixes = Corpus.prefixes(keys, 2);
+		target = layout.create();
+		for (final String key : keys) target.put(key, 1);
+	}
+
+	@Benchmark
+	public Object get() {
+		return target.get(next(keys));
+	}
+
+	@Benchmark
+	public Object put() {
+		return target.put(next(keys), 2);
+	}
+
+	@Benchmark
+	public Object getKeysWithPrefix() {
+		return target.getKeysWithPrefix(next(prefixes), 10);
+	}
+
+	@Benchmark
+	@Warmup(iterations = 1)
+	@Measurement(iterations = 3)
+	public Object build() {
+		final Target fresh = layout.create();
+		for (final String key : keys) fresh.put(key, 1);
+		return fresh;
+	}
+
+	private String next(final List<String> list) {
+		if (++cursor >= list.size()) cursor = 0;
+		return list.get(cursor);
+	}
+
+
+	public enum Layout {
+
+		HASHMAP_SIMPLE {
+			@Override
+			Target create() {
+				final HashMapSimpleTrie<Integer> trie = new HashMapSimpleTrie<>();
+				return target(trie::put, trie::get, (p, c) -> trie.getKeysWithPrefix(p, Comparator.naturalOrder(), c));
+			}
+		},
+		SIMPLE {
+			@Override
+			Target create() {
+				final SimpleTrie<Integer> trie = new SimpleTrie<>();
+				return target(trie::put, trie::get, trie::getKeysWithPrefix);
+			}
+		},
+		HASHMAP_COMPRESSED {
+			@Override
+			Target create() {
+				final HashMapCompressedTrie<Integer> trie = new HashMapCompressedTrie<>();
+				return target(trie::put, trie::get, (p, c) -> trie.getKeysWithPrefix(p, Comparator.naturalOrder(), c));
+			}
+		},
+		COMPRESSED {
+			@Override
+			Target create() {
+				final CompressedTrie<Integer> trie = new CompressedTrie<>();
+				return target(trie::put, trie::get, trie::getKeysWithPrefix);
+			}
+		};
+
+		abstract Target create();
+
+	}
+
+	interface Target {
+
+		Object put(String key, Integer value);
+
+		Object get(String key);
+
+		List<String> getKeysWithPrefix(String prefix, int count);
+
+	}
+
+	private static Target target(final BiFunction<String, Integer, Object> put,
+								 final Function<String, Object> get,
+								 final BiFunction<String, Integer, List<String>> prefix) {
+		return new Target() {
+			@Override
+			public Object put(final String key, final Integer value) {
+				return put.apply(key, value);
+			}
+
+			@Override
+			public Object get(final String key) {
+				return get.apply(key);
+			}
+
+			@Override
+			public List<String> getKeysWithPrefix(final String p, final int count) {
+				return prefix.apply(p, count);
+			}
+		};
+	}
+
+}
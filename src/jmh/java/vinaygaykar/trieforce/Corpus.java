@@ -0,0 +1,68 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+
+/**
+ * Generates a deterministic synthetic corpus of keys for benchmarks.
+ * <p>
+ * Letters are drawn with a skewed distribution so that, like natural language keys, a few prefixes are hot and
+ * share long common paths while the tail of the alphabet produces sparse branches.
+ *
+ * @author Vinay Gaykar
+ */
+public final class Corpus {
+
+	private static final String ALPHABET = "etaoinshrdlcumwfgypbvkjxqz";
+
+
+	private Corpus() {
+	}
+
+	/**
+	 * @param size number of unique keys to generate
+	 * @param seed seed for the random generator
+	 *
+	 * @return shuffled list of unique keys
+	 */
+	public static List<String> keys(final int size, final long seed) {
+		final Random random = new Random(seed);
+		final Set<String> keys = new HashSet<>(size * 2);
+		final StringBuilder sb = new StringBuilder();
+
+		while (keys.size() < size) {
+			sb.setLength(0);
+			final int length = 3 + random.nextInt(10);
+			for (int i = 0; i < length; ++i) {
+				final double r = random.nextDouble();
+				sb.append(ALPHABET.charAt((int) (r * r * ALPHABET.length())));
+			}
+			keys.add(sb.toString());
+		}
+
+		final List<String> list = new ArrayList<>(keys);
+		Collections.shuffle(list, random);
+		return list;
+	}
+
+	/**
+	 * @param keys keys to take prefixes of
+	 * @param length length of the prefixes
+	 *
+	 * @return prefixes of given length of every key which is long enough, in the same order
+	 */
+	public static List<String> prefixes(final List<String> keys, final int length) {
+		final List<String> prefixes = new ArrayList<>(keys.size());
+		for (final String key : keys)
+			if (key.length() >= length) prefixes.add(key.substring(0, length));
+
+		return prefixes;
+	}
+
+}
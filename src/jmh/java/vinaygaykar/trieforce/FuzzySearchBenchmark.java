@@ -0,0 +1,124 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import vinaygaykar.trieforce.compressed.CompressedTrie;
+import vinaygaykar.trieforce.simple.SimpleTrie;
+
+
+/**
+ * Measures {@link Trie#fuzzySearch(String, int, int)}, which prunes the branches of the Trie exceeding the edits,
+ * against scanning all the keys and computing the edit distance of every one of them, for misspelled keys.
+ *
+ * @author Vinay Gaykar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FuzzySearchBenchmark {
+
+	private static final int LIMIT = 10;
+
+
+	@Param({ "100000" })
+	private int size;
+
+	@Param({ "SIMPLE", "COMPRESSED" })
+	private String implementation;
+
+	@Param({ "1", "2" })
+	private int maxEdits;
+
+	private Trie<Integer> trie;
+
+	private String[] keys;
+
+	private String[] terms;
+
+	private int cursor;
+
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		trie = "SIMPLE".equals(implementation) ? new SimpleTrie<>() : new CompressedTrie<>();
+
+		final List<String> corpus = Corpus.keys(size, 42L);
+		for (int i = 0; i < corpus.size(); ++i) trie.put(corpus.get(i), i);
+		keys = corpus.toArray(new String[0]);
+
+		// every term is a key with a character substituted, inserted or deleted
+		final Random random = new Random(7L);
+		terms = new String[1024];
+		for (int i = 0; i < terms.length; ++i) {
+			final StringBuilder term = new StringBuilder(keys[random.nextInt(keys.length)]);
+			final int at = random.nextInt(term.length());
+			switch (random.nextInt(3)) {
+				case 0:
+					term.setCharAt(at, (char) ('a' + random.nextInt(26)));
+					break;
+				case 1:
+					term.insert(at, (char) ('a' + random.nextInt(26)));
+					break;
+				default:
+					term.deleteCharAt(at);
+			}
+			terms[i] = term.toString();
+		}
+	}
+
+	@Benchmark
+	public Object trie() {
+		return trie.fuzzySearch(terms[next()], maxEdits, LIMIT);
+	}
+
+	@Benchmark
+	public Object bruteForce() {
+		final String term = terms[next()];
+		final List<String> results = new ArrayList<>();
+		final int[] previous = new int[term.length() + 1];
+		final int[] row = new int[term.length() + 1];
+
+		for (final String key : keys) {
+			if (Math.abs(key.length() - term.length()) > maxEdits) continue;
+
+			for (int j = 0; j <= term.length(); ++j) previous[j] = j;
+			for (int i = 1; i <= key.length(); ++i) {
+				row[0] = i;
+				for (int j = 1; j <= term.length(); ++j) {
+					final int cost = key.charAt(i - 1) == term.charAt(j - 1) ? 0 : 1;
+					row[j] = Math.min(Math.min(previous[j], row[j - 1]) + 1, previous[j - 1] + cost);
+				}
+				System.arraycopy(row, 0, previous, 0, row.length);
+			}
+
+			if (previous[term.length()] <= maxEdits) results.add(key);
+		}
+
+		return results;
+	}
+
+	private int next() {
+		if (++cursor >= terms.length) cursor = 0;
+		return cursor;
+	}
+
+}
@@ -0,0 +1,92 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import vinaygaykar.trieforce.compressed.CompressedTrie;
+import vinaygaykar.trieforce.simple.SimpleTrie;
+
+
+/**
+ * Measures {@link Trie#getAll(java.util.Collection)} against looking up the same batch of keys one by one, for
+ * batches of random keys of the corpus.
+ *
+ * @author Vinay Gaykar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class GetAllBenchmark {
+
+	private static final int BATCHES = 16;
+
+	@Param({ "1000000" })
+	private int size;
+
+	@Param({ "100", "1000", "10000" })
+	private int batchSize;
+
+	@Param({ "SIMPLE", "COMPRESSED" })
+	private String implementation;
+
+	private Trie<Integer> trie;
+
+	private List<List<String>> batches;
+
+	private int cursor;
+
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		trie = "SIMPLE".equals(implementation) ? new SimpleTrie<>() : new CompressedTrie<>();
+
+		final List<String> keys = Corpus.keys(size, 42L);
+		for (int i = 0; i < keys.size(); ++i) trie.put(keys.get(i), i);
+
+		final Random random = new Random(7L);
+		batches = new ArrayList<>(BATCHES);
+		for (int i = 0; i < BATCHES; ++i) {
+			final List<String> batch = new ArrayList<>(batchSize);
+			for (int j = 0; j < batchSize; ++j) batch.add(keys.get(random.nextInt(keys.size())));
+			batches.add(batch);
+		}
+	}
+
+	@Benchmark
+	public Object getAll() {
+		return trie.getAll(next());
+	}
+
+	@Benchmark
+	public Object getEach() {
+		final List<String> batch = next();
+		final List<Integer> values = new ArrayList<>(batch.size());
+		for (final String key : batch) values.add(trie.getOrDefault(key, null));
+
+		return values;
+	}
+
+	private List<String> next() {
+		if (++cursor >= batches.size()) cursor = 0;
+		return batches.get(cursor);
+	}
+
+}
@@ -0,0 +1,111 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import vinaygaykar.trieforce.compressed.CompressedTrie;
+import vinaygaykar.trieforce.simple.SimpleTrie;
+
+
+/**
+ * Measures lookups of keys given as {@link String}, {@link CharSequence} &amp; {@code char[]} slices.
+ * <p>
+ * Run with {@code -prof gc}: the {@code findNode*} benchmarks are expected to report a {@code gc.alloc.rate.norm}
+ * of 0 B/op, the {@code get*} benchmarks only allocate the returned {@link java.util.Optional}.
+ *
+ * @author Vinay Gaykar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+	@Param({ "100000" })
+	private int size;
+
+	@Param({ "SIMPLE", "COMPRESSED" })
+	private String implementation;
+
+	private Trie<Integer> trie;
+
+	private String[] keys;
+
+	private StringBuilder[] sequences;
+
+	private char[] buffer;
+
+	private int[] offsets;
+
+	private int cursor;
+
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		trie = "SIMPLE".equals(implementation) ? new SimpleTrie<>() : new CompressedTrie<>();
+
+		final List<String> corpus = Corpus.keys(size, 42L);
+		keys = corpus.toArray(new String[0]);
+		sequences = new StringBuilder[keys.length];
+		offsets = new int[keys.length + 1];
+
+		final StringBuilder all = new StringBuilder();
+		for (int i = 0; i < keys.length; ++i) {
+			trie.put(keys[i], i);
+			sequences[i] = new StringBuilder(keys[i]);
+			offsets[i] = all.length();
+			all.append(keys[i]);
+		}
+		offsets[keys.length] = all.length();
+		buffer = all.toString().toCharArray();
+	}
+
+	@Benchmark
+	public Object getString() {
+		return trie.get(keys[next()]);
+	}
+
+	@Benchmark
+	public Object getCharSequence() {
+		return trie.get(sequences[next()]);
+	}
+
+	@Benchmark
+	public Object getCharArray() {
+		final int i = next();
+		return trie.get(buffer, offsets[i], offsets[i + 1] - offsets[i]);
+	}
+
+	@Benchmark
+	public Object findNodeCharSequence() {
+		final StringBuilder key = sequences[next()];
+		return trie.findNode(key, 0, key.length());
+	}
+
+	@Benchmark
+	public Object findNodeCharArray() {
+		final int i = next();
+		return trie.findNode(buffer, offsets[i], offsets[i + 1]);
+	}
+
+	private int next() {
+		if (++cursor >= keys.length) cursor = 0;
+		return cursor;
+	}
+
+}
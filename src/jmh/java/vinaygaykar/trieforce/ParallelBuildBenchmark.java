@@ -0,0 +1,80 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import vinaygaykar.trieforce.compressed.CompressedTrie;
+
+
+/**
+ * Measures how {@link CompressedTrie.Builder#buildParallel(List, ForkJoinPool)} scales with the number of threads
+ * of the pool, against a single {@link CompressedTrie.Builder}, for a multi-million key corpus.
+ *
+ * @author Vinay Gaykar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class ParallelBuildBenchmark {
+
+	@Param({ "4000000" })
+	private int size;
+
+	@Param({ "1", "2", "4", "8", "16" })
+	private int threads;
+
+	private List<Map.Entry<String, Integer>> entries;
+
+	private ForkJoinPool pool;
+
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		final List<String> keys = Corpus.keys(size, 42L);
+		Collections.sort(keys);
+
+		entries = new ArrayList<>(keys.size());
+		for (int i = 0; i < keys.size(); ++i) entries.add(new AbstractMap.SimpleImmutableEntry<>(keys.get(i), i));
+		pool = new ForkJoinPool(threads);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public Object parallel() {
+		return CompressedTrie.Builder.buildParallel(entries, pool);
+	}
+
+	@Benchmark
+	public Object sequential() {
+		final CompressedTrie.Builder<Integer> builder = new CompressedTrie.Builder<>();
+		for (final Map.Entry<String, Integer> entry : entries) builder.add(entry.getKey(), entry.getValue());
+		return builder.build();
+	}
+
+}
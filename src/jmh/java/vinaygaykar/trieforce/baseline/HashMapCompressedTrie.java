@@ -0,0 +1,154 @@
+package vinaygaykar.trieforce.baseline;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Copy of the original {@link vinaygaykar.trieforce.compressed.CompressedTrie} layout which stores children in a
+ * {@link HashMap} and edge labels in a {@link StringBuilder}, kept only as a baseline for benchmarks.
+ *
+ * @param <V> the type of the values that are stored
+ *
+ * @author Vinay Gaykar
+ */
+public class HashMapCompressedTrie<V> {
+
+	private final Node<V> root = new Node<>();
+
+
+	public V put(final String key, final V value) {
+		Node<V> current = root;
+		for (int i = 0; i < key.length(); ++i) {
+			final char ch = key.charAt(i);
+			final Node<V> next = current.children.get(ch);
+
+			if (next == null) {
+				final Node<V> node = new Node<>();
+				node.prefix.append(key.substring(i + 1));
+
+				current.children.put(ch, node);
+				current = node;
+				break;
+			} else if (next.prefix.length() == 0) {
+				current = next;
+				continue;
+			}
+
+			final int len = (i < key.length() - 1)
+							? getCommonPrefixLength(next.prefix, key.substring(i + 1))
+							: 0;
+
+			if (len == 0) {
+				splitNode(next, len);
+				current = next;
+			} else if (next.prefix.length() == len) {
+				i += len;
+				current = next;
+			} else if (next.prefix.length() > len) {
+				splitNode(next, len);
+				i += len;
+				current = next;
+			}
+		}
+
+		final V old = current.value;
+		current.value = value;
+		return old;
+	}
+
+	private void splitNode(final Node<V> node, final int point) {
+		final char ch = node.prefix.charAt(point);
+		final Node<V> child = new Node<>();
+
+		child.prefix.append(node.prefix.substring(point + 1));
+		node.prefix.delete(point, node.prefix.length());
+
+		child.children.putAll(node.children);
+		node.children.clear();
+
+		child.value = node.value;
+		node.value = null;
+
+		node.children.put(ch, child);
+	}
+
+	public V get(final String key) {
+		final Node<V> node = find(key);
+		return node == null ? null : node.value;
+	}
+
+	public List<String> getKeysWithPrefix(final String prefix,
+										  final Comparator<Character> comparator,
+										  final int count) {
+		final Node<V> node = find(prefix);
+		if (node == null)
+			return Collections.emptyList();
+
+		final List<String> results = new ArrayList<>(count);
+		traverse(new StringBuilder(prefix).append(node.prefix), count, node, comparator, results);
+		return results;
+	}
+
+	private Node<V> find(final String key) {
+		Node<V> current = root;
+		for (int i = 0; i < key.length(); ++i) {
+			final Node<V> next = current.children.get(key.charAt(i));
+			if (next == null)
+				return null;
+
+			final int len = getCommonPrefixLength(next.prefix, key.substring(i + 1));
+			if (i != key.length() - 1 && len < next.prefix.length())
+				return null;
+
+			i += len;
+			current = next;
+		}
+
+		return current;
+	}
+
+	private int getCommonPrefixLength(final StringBuilder a, final String b) {
+		int ptr = 0;
+		while (ptr < a.length() && ptr < b.length() && a.charAt(ptr) == b.charAt(ptr))
+			ptr++;
+
+		return ptr;
+	}
+
+	private void traverse(final StringBuilder prefix,
+						  final int count,
+						  final Node<V> node,
+						  final Comparator<Character> keyComparator,
+						  final List<String> results) {
+		if (results.size() >= count) return;
+		if (node.value != null) results.add(prefix.toString());
+
+		node.children.entrySet().stream()
+				.sorted((e1, e2) -> keyComparator.compare(e1.getKey(), e2.getKey()))
+				.forEachOrdered(entry -> {
+					if (results.size() < count) {
+						final int length = prefix.length();
+						traverse(prefix.append(entry.getKey()).append(entry.getValue().prefix),
+								count, entry.getValue(), keyComparator, results);
+						prefix.setLength(length);
+					}
+				});
+	}
+
+	private static class Node<V> {
+
+		private final Map<Character, Node<V>> children = new HashMap<>();
+
+		private final StringBuilder prefix = new StringBuilder();
+
+		private V value;
+
+	}
+
+}
@@ -0,0 +1,84 @@
+package vinaygaykar.trieforce.baseline;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Copy of the original {@link vinaygaykar.trieforce.simple.SimpleTrie} layout which stores children in a
+ * {@link HashMap}, kept only as a baseline for benchmarks.
+ *
+ * @param <V> the type of the values that are stored
+ *
+ * @author Vinay Gaykar
+ */
+public class HashMapSimpleTrie<V> {
+
+	private final Node<V> root = new Node<>();
+
+
+	public V put(final String key, final V value) {
+		Node<V> current = root;
+		for (int i = 0; i < key.length(); ++i)
+			current = current.children.computeIfAbsent(key.charAt(i), k -> new Node<>());
+
+		final V old = current.value;
+		current.value = value;
+		return old;
+	}
+
+	public V get(final String key) {
+		final Node<V> node = find(key);
+		return node == null ? null : node.value;
+	}
+
+	public List<String> getKeysWithPrefix(final String prefix,
+										  final Comparator<Character> comparator,
+										  final int count) {
+		final Node<V> node = find(prefix);
+		if (node == null)
+			return Collections.emptyList();
+
+		final List<String> results = new ArrayList<>(count);
+		traverse(prefix, count, node, comparator, results);
+		return results;
+	}
+
+	private Node<V> find(final String key) {
+		Node<V> current = root;
+		for (int i = 0; i < key.length() && current != null; ++i)
+			current = current.children.get(key.charAt(i));
+
+		return current;
+	}
+
+	private void traverse(final String prefix,
+						  final int count,
+						  final Node<V> node,
+						  final Comparator<Character> keyComparator,
+						  final List<String> results) {
+		if (results.size() == count) return;
+		if (node.value != null) results.add(prefix);
+
+		node.children.entrySet().stream()
+				.sorted((e1, e2) -> keyComparator.compare(e1.getKey(), e2.getKey()))
+				.forEachOrdered(entry -> {
+					if (results.size() < count)
+						traverse(prefix + entry.getKey(), count, entry.getValue(), keyComparator, results);
+				});
+	}
+
+	private static class Node<V> {
+
+		private final Map<Character, Node<V>> children = new HashMap<>();
+
+		private V value;
+
+	}
+
+}
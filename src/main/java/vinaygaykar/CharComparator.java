@@ -0,0 +1,109 @@
+package vinaygaykar;
+
+
+import java.util.Comparator;
+
+
+/**
+ * A {@link Comparator} of characters which compares primitive {@code char}s, to specify the order of keys returned by
+ * {@link Dictionary#getKeysWithPrefix(String, Comparator, int)} without boxing every compared character.
+ * <p>
+ * Since this is a {@link Comparator} of {@link Character} it can be passed wherever one is expected:
+ * <pre>{@code
+ * 		final CharComparator caseInsensitive = (a, b) -> Character.compare(Character.toLowerCase(a), Character.toLowerCase(b));
+ * 		final List<String> keys = dict.getKeysWithPrefix("A", caseInsensitive, 10);
+ * }</pre>
+ * <p>
+ * {@link #naturalOrder()} &amp; {@link #reverseOrder()}, just like {@link Comparator#naturalOrder()} &amp;
+ * {@link Comparator#reverseOrder()}, are recognised by the implementations and served without comparing at all.
+ *
+ * @author Vinay Gaykar
+ */
+@FunctionalInterface
+public interface CharComparator extends Comparator<Character> {
+
+	/**
+	 * Compares its two characters for order.
+	 *
+	 * @param a the first character to be compared
+	 * @param b the second character to be compared
+	 *
+	 * @return a negative integer, zero, or a positive integer as the first character is less than, equal to, or
+	 * greater than the second
+	 */
+	int compareChars(final char a, final char b);
+
+	@Override
+	default int compare(final Character a, final Character b) {
+		return compareChars(a, b);
+	}
+
+	@Override
+	default CharComparator reversed() {
+		return (a, b) -> compareChars(b, a);
+	}
+
+	/**
+	 * @return a comparator which compares characters by their numeric value
+	 */
+	static CharComparator naturalOrder() {
+		return Order.NATURAL;
+	}
+
+	/**
+	 * @return a comparator which imposes the reverse of the natural order of characters
+	 */
+	static CharComparator reverseOrder() {
+		return Order.REVERSE;
+	}
+
+	/**
+	 * Returns a {@link CharComparator} for the given comparator, the same instance if it already is one.
+	 *
+	 * @param comparator the comparator to adapt
+	 *
+	 * @return a comparator imposing the same order
+	 *
+	 * @throws NullPointerException if the comparator is <tt>null</tt>
+	 */
+	static CharComparator of(final Comparator<Character> comparator) {
+		if (comparator instanceof CharComparator) return (CharComparator) comparator;
+		if (Comparator.<Character>naturalOrder().equals(comparator)) return Order.NATURAL;
+		if (Comparator.<Character>reverseOrder().equals(comparator)) return Order.REVERSE;
+
+		return comparator::compare;
+	}
+
+
+	/**
+	 * The natural &amp; reverse orders, as constants so that they can be recognised by identity.
+	 */
+	enum Order implements CharComparator {
+
+		NATURAL {
+			@Override
+			public int compareChars(final char a, final char b) {
+				return Character.compare(a, b);
+			}
+
+			@Override
+			public CharComparator reversed() {
+				return REVERSE;
+			}
+		},
+
+		REVERSE {
+			@Override
+			public int compareChars(final char a, final char b) {
+				return Character.compare(b, a);
+			}
+
+			@Override
+			public CharComparator reversed() {
+				return NATURAL;
+			}
+		}
+
+	}
+
+}
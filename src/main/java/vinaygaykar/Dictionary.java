@@ -1,12 +1,26 @@
 package vinaygaykar;
 
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import vinaygaykar.automaton.RegexAutomaton;
 
 
 /**
@@ -20,7 +34,9 @@ import java.util.function.Function;
  * This interface provides methods for adding and removing key-value pairs, and searching for values associated with
  * a given key or keys with a given prefix.
  * The {@link Optional} type is used in the return type of all methods that return values, to handle <tt>null</tt>
- * cases gracefully.
+ * cases gracefully. For hot paths where the allocation of an {@link Optional} matters, raw variants such as
+ * {@link #getOrDefault(CharSequence, Object)}, {@link #containsKey(CharSequence)},
+ * {@link #putAndGetPrevious(String, Object)} &amp; {@link #removeAndGetPrevious(String)} are provided.
  * <p>
  * All methods of this interface that take a key as a parameter will throw an {@link IllegalArgumentException} if the
  * key is an empty string, and a {@link NullPointerException} if the key is <tt>null</tt>.
@@ -62,6 +78,156 @@ public interface Dictionary<V> {
 	 */
 	Optional<V> get(final String key);
 
+	/**
+	 * Retrieves an associated value object with the key given as any {@link CharSequence}, such as a
+	 * {@link StringBuilder} or a {@link java.nio.CharBuffer}, without first building a {@link String} out of it.
+	 * <p>
+	 * The default implementation builds a {@link String} out of the key, implementations are encouraged to look it up
+	 * as is.
+	 *
+	 * @param key the key whose associated value is to be returned
+	 *
+	 * @return an {@link Optional} object containing the value object, or {@link Optional#empty()} if the key is absent
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 * @see #get(String)
+	 */
+	default Optional<V> get(final CharSequence key) {
+		validateKey(key);
+		return get(key.toString());
+	}
+
+	/**
+	 * Retrieves an associated value object with the key given as a slice of a {@code char} array, without first
+	 * building a {@link String} out of it.
+	 * <p>
+	 * The default implementation builds a {@link String} out of the slice, implementations are encouraged to look it
+	 * up as is.
+	 *
+	 * @param key    the array holding the key whose associated value is to be returned
+	 * @param offset index of the first character of the key in the array
+	 * @param length number of characters in the key
+	 *
+	 * @return an {@link Optional} object containing the value object, or {@link Optional#empty()} if the key is absent
+	 *
+	 * @throws IllegalArgumentException  if the key is empty
+	 * @throws NullPointerException      if the key is <tt>null</tt>
+	 * @throws IndexOutOfBoundsException if the slice is not within the array
+	 * @see #get(String)
+	 */
+	default Optional<V> get(final char[] key, final int offset, final int length) {
+		validateKey(key, offset, length);
+		return get(new String(key, offset, length));
+	}
+
+	/**
+	 * Retrieves an associated value object with the given key, or returns <tt>defaultValue</tt> if the key is absent.
+	 * <p>
+	 * Unlike {@link #get(CharSequence)} the value is not wrapped in an {@link Optional}, which makes this the
+	 * preferred way of reading values on hot paths as it does not allocate.
+	 *
+	 * @param key          the key whose associated value is to be returned
+	 * @param defaultValue the value to return if the key is absent, may be <tt>null</tt>
+	 *
+	 * @return the value object associated with the key, or <tt>defaultValue</tt> if the key is absent
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 */
+	default V getOrDefault(final CharSequence key, final V defaultValue) {
+		return get(key).orElse(defaultValue);
+	}
+
+	/**
+	 * Same as {@link #getOrDefault(CharSequence, Object)} but for a key given as a slice of a {@code char} array.
+	 *
+	 * @param key          the array holding the key whose associated value is to be returned
+	 * @param offset       index of the first character of the key in the array
+	 * @param length       number of characters in the key
+	 * @param defaultValue the value to return if the key is absent, may be <tt>null</tt>
+	 *
+	 * @return the value object associated with the key, or <tt>defaultValue</tt> if the key is absent
+	 *
+	 * @throws IllegalArgumentException  if the key is empty
+	 * @throws NullPointerException      if the key is <tt>null</tt>
+	 * @throws IndexOutOfBoundsException if the slice is not within the array
+	 */
+	default V getOrDefault(final char[] key, final int offset, final int length, final V defaultValue) {
+		return get(key, offset, length).orElse(defaultValue);
+	}
+
+	/**
+	 * Checks whether the key is present in the dictionary, without allocating.
+	 *
+	 * @param key the key to check
+	 *
+	 * @return true if the key is present
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 */
+	default boolean containsKey(final CharSequence key) {
+		return get(key).isPresent();
+	}
+
+	/**
+	 * Retrieves the values associated with a batch of keys, without wrapping each of them in an {@link Optional}.
+	 * <p>
+	 * Implementations are encouraged to do better than looking up every key on its own, e.g. by sharing the work
+	 * between keys with a common prefix.
+	 * <p>
+	 * Usage:
+	 * <pre>{@code
+	 * 		final List<Integer> values = dict.getAll(Arrays.asList("hello", "help", "world"));
+	 * }</pre>
+	 *
+	 * @param keys the keys whose associated values are to be returned, may contain duplicates
+	 *
+	 * @return a {@link List} of the values associated with the keys, in the order of the keys, with <tt>null</tt> at
+	 * the position of every absent key
+	 *
+	 * @throws IllegalArgumentException if a key is empty
+	 * @throws NullPointerException     if the collection or a key is <tt>null</tt>
+	 */
+	default List<V> getAll(final Collection<String> keys) {
+		final List<V> values = new ArrayList<>(keys.size());
+		for (final String key : keys) values.add(getOrDefault(key, null));
+
+		return values;
+	}
+
+	/**
+	 * Same as {@link #put(String, Object)} but returns the previous value as is instead of wrapping it in an
+	 * {@link Optional}.
+	 *
+	 * @param key   the key to be added
+	 * @param value the associated value object
+	 *
+	 * @return the previous value associated with the key, or <tt>null</tt> if the key is new
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key or value is <tt>null</tt>
+	 */
+	default V putAndGetPrevious(final String key, final V value) {
+		return put(key, value).orElse(null);
+	}
+
+	/**
+	 * Same as {@link #remove(String)} but returns the previous value as is instead of wrapping it in an
+	 * {@link Optional}.
+	 *
+	 * @param key the key to be removed
+	 *
+	 * @return the previous value associated with the key, or <tt>null</tt> if there was no mapping for the key
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 */
+	default V removeAndGetPrevious(final String key) {
+		return remove(key).orElse(null);
+	}
+
 	/**
 	 * Searches the dictionary for all keys that that start with the given prefix.
 	 * Will return a list of all matching keys as a {@link List} of max size <tt>count</tt>.
@@ -89,13 +255,15 @@ public interface Dictionary<V> {
 	 * @throws NullPointerException     if the key is <tt>null</tt>
 	 */
 	default List<String> getKeysWithPrefix(final String prefix, final int count) {
-		return getKeysWithPrefix(prefix, Comparator.naturalOrder(), count);
+		return getKeysWithPrefix(prefix, CharComparator.naturalOrder(), count);
 	}
 
 	/**
 	 * Searches the dictionary for all keys that that start with the given prefix.
 	 * Will return a list of all matching keys as a {@link List} of max size <tt>count</tt>.
 	 * This method provides a way to specify ordering of keys.
+	 * Keys are returned in depth first order where the children of every node are visited in the order specified by
+	 * the comparator, hence a key is always returned before the longer keys it is a prefix of.
 	 * <p>
 	 * Usage:
 	 * Consider the state of the dictionary with the following words: "ABC", "ABD", "ACE", "ACID", "ADIEU".
@@ -112,15 +280,525 @@ public interface Dictionary<V> {
 	 *
 	 * @param prefix     the prefix to search for
 	 * @param count      the maximum number of words to return
-	 * @param comparator a character {@link Comparator} to specify order of returned keys
+	 * @param comparator a character {@link Comparator} to specify order of returned keys, a {@link CharComparator}
+	 *                   compares characters without boxing them
 	 *
 	 * @return a {@link List} of keys that start with the given prefix, up to a maximum of <tt>count</tt>
 	 *
 	 * @throws IllegalArgumentException if the key is empty or count is not positive
-	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 * @throws NullPointerException     if the key or comparator is <tt>null</tt>
 	 */
 	List<String> getKeysWithPrefix(final String prefix, final Comparator<Character> comparator, final int count);
 
+	/**
+	 * Searches the dictionary for the keys that start with the given prefix and are lexicographically greater than
+	 * <tt>afterKey</tt>, to page through the keys with a prefix.
+	 * Will return a list of matching keys as a {@link List} of max size <tt>count</tt>, in lexicographical order.
+	 * <p>
+	 * Usage, passing the last key of a page to get the next page:
+	 * <pre>{@code
+	 * 		final List<String> first = dict.getKeysWithPrefix("acc", 20);
+	 * 		final List<String> second = dict.getKeysWithPrefix("acc", first.get(first.size() - 1), 20);
+	 * }</pre>
+	 *
+	 * @param prefix   the prefix to search for
+	 * @param afterKey the key after which to start, need not be present nor start with the prefix
+	 * @param count    the maximum number of words to return
+	 *
+	 * @return a {@link List} of keys that start with the given prefix and are greater than <tt>afterKey</tt>, up to a
+	 * maximum of <tt>count</tt>
+	 *
+	 * @throws IllegalArgumentException if the key is empty or count is not positive
+	 * @throws NullPointerException     if the key or <tt>afterKey</tt> is <tt>null</tt>
+	 */
+	default List<String> getKeysWithPrefix(final String prefix, final String afterKey, final int count) {
+		Objects.requireNonNull(afterKey);
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return with prefix is not a positive number");
+
+		return keysWithPrefix(prefix)
+				.filter(key -> key.compareTo(afterKey) > 0)
+				.limit(count)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Counts the keys that start with the given prefix, without returning them.
+	 *
+	 * @param prefix the prefix to search for
+	 *
+	 * @return the number of keys that start with the given prefix
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 */
+	default long countKeysWithPrefix(final String prefix) {
+		return keysWithPrefix(prefix).count();
+	}
+
+	/**
+	 * Returns an {@link Iterator} over all keys that start with the given prefix, in lexicographical order.
+	 * <p>
+	 * Unlike {@link #getKeysWithPrefix(String, int)} implementations are encouraged to produce the keys on demand,
+	 * so that callers paging through a large number of keys, or stopping early, only pay for the keys they consume.
+	 * The dictionary must not be modified while iterating.
+	 *
+	 * @param prefix the prefix to search for
+	 *
+	 * @return an {@link Iterator} over the keys that start with the given prefix
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 */
+	default Iterator<String> keysWithPrefixIterator(final String prefix) {
+		return getKeysWithPrefix(prefix, Integer.MAX_VALUE).iterator();
+	}
+
+	/**
+	 * Returns a sequential {@link Stream} of all keys that start with the given prefix, in lexicographical order.
+	 * <p>
+	 * Usage:
+	 * <pre>{@code
+	 * 		final long count = dict.keysWithPrefix("acc").filter(key -> key.endsWith("ing")).count();
+	 * }</pre>
+	 *
+	 * @param prefix the prefix to search for
+	 *
+	 * @return a {@link Stream} of the keys that start with the given prefix
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 * @see #keysWithPrefixIterator(String)
+	 */
+	default Stream<String> keysWithPrefix(final String prefix) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(keysWithPrefixIterator(prefix),
+				Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Returns a sequential {@link Stream} of all key-value pairs whose keys start with the given prefix, in
+	 * lexicographical order of keys.
+	 * <p>
+	 * This saves looking up the value of every key returned by {@link #keysWithPrefix(String)} again.
+	 *
+	 * @param prefix the prefix to search for
+	 *
+	 * @return a {@link Stream} of immutable entries whose keys start with the given prefix
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 */
+	default Stream<Map.Entry<String, V>> entriesWithPrefix(final String prefix) {
+		return keysWithPrefix(prefix).map(key -> new AbstractMap.SimpleImmutableEntry<>(key, get(key).orElse(null)));
+	}
+
+	/**
+	 * Returns a sequential {@link Stream} of all keys of the dictionary, in lexicographical order.
+	 * <p>
+	 * The order statistics &amp; the searches over all keys, such as {@link #rank(String)}, {@link #select(long)} or
+	 * {@link #forEach(BiConsumer)}, are built on it unless overridden, so implementations should produce the keys
+	 * lazily by walking them directly, in time proportional to the keys consumed.
+	 *
+	 * @return a {@link Stream} of all keys
+	 */
+	Stream<String> keys();
+
+	/**
+	 * Returns the number of keys in the dictionary which are lexicographically smaller than the given key, i.e. the
+	 * index the key has, or would have if it is absent, in the sorted list of all keys.
+	 * <p>
+	 * The default implementation counts the smaller keys of {@link #keys()}, which walks all keys of the dictionary.
+	 *
+	 * @param key the key to rank, need not be present
+	 *
+	 * @return the number of keys smaller than the key
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 * @see #select(long)
+	 */
+	default long rank(final String key) {
+		validateKey(key);
+		return keys().filter(other -> other.compareTo(key) < 0).count();
+	}
+
+	/**
+	 * Returns the key at the given index in the lexicographically sorted list of all keys of the dictionary.
+	 * <p>
+	 * Usage, to get the first key of the page of size 20 numbered <tt>page</tt>:
+	 * <pre>{@code
+	 * 		final String first = dict.select(page * 20L);
+	 * }</pre>
+	 * <p>
+	 * The default implementation skips the first <tt>index</tt> keys of {@link #keys()}.
+	 *
+	 * @param index the index of the key, starting at 0
+	 *
+	 * @return the key at the index
+	 *
+	 * @throws IndexOutOfBoundsException if the index is negative or not less than {@link #size()}
+	 * @see #rank(String)
+	 */
+	default String select(final long index) {
+		if (index < 0 || index >= size())
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+
+		return keys().skip(index).findFirst().orElseThrow(() -> new IndexOutOfBoundsException("Index: " + index));
+	}
+
+	/**
+	 * Returns the lexicographically smallest key of the dictionary.
+	 *
+	 * @return the smallest key, or {@link Optional#empty()} if the dictionary is empty
+	 */
+	default Optional<String> firstKey() {
+		return size() == 0 ? Optional.empty() : Optional.of(select(0));
+	}
+
+	/**
+	 * Returns the lexicographically greatest key of the dictionary.
+	 *
+	 * @return the greatest key, or {@link Optional#empty()} if the dictionary is empty
+	 */
+	default Optional<String> lastKey() {
+		return size() == 0 ? Optional.empty() : Optional.of(select(size() - 1));
+	}
+
+	/**
+	 * Returns the greatest key of the dictionary less than or equal to the given key.
+	 *
+	 * @param key the key to search for, need not be present
+	 *
+	 * @return the greatest key less than or equal to the key, or {@link Optional#empty()} if there is none
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 */
+	default Optional<String> floorKey(final String key) {
+		if (containsKey(key)) return Optional.of(key);
+
+		final long rank = rank(key);
+		return rank == 0 ? Optional.empty() : Optional.of(select(rank - 1));
+	}
+
+	/**
+	 * Returns the smallest key of the dictionary greater than or equal to the given key.
+	 *
+	 * @param key the key to search for, need not be present
+	 *
+	 * @return the smallest key greater than or equal to the key, or {@link Optional#empty()} if there is none
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 */
+	default Optional<String> ceilingKey(final String key) {
+		final long rank = rank(key);
+		return rank == size() ? Optional.empty() : Optional.of(select(rank));
+	}
+
+	/**
+	 * Returns a sequential {@link Stream} of the keys of the dictionary from <tt>fromKey</tt>, inclusive, to
+	 * <tt>toKey</tt>, exclusive, in lexicographical order.
+	 * <p>
+	 * Usage, with keys suffixed by a date:
+	 * <pre>{@code
+	 * 		final List<String> march = dict.keysBetween("sensor-1/2023-03", "sensor-1/2023-04").collect(Collectors.toList());
+	 * }</pre>
+	 *
+	 * @param fromKey the smallest key of the range, need not be present
+	 * @param toKey   the key after the range, need not be present
+	 *
+	 * @return a {@link Stream} of the keys in the range
+	 *
+	 * @throws IllegalArgumentException if any of the keys is empty or <tt>fromKey</tt> is greater than
+	 *                                  <tt>toKey</tt>
+	 * @throws NullPointerException     if any of the keys is <tt>null</tt>
+	 */
+	default Stream<String> keysBetween(final String fromKey, final String toKey) {
+		validateKey(fromKey);
+		validateKey(toKey);
+		if (fromKey.compareTo(toKey) > 0)
+			throw new IllegalArgumentException("fromKey > toKey");
+
+		return keys().filter(key -> key.compareTo(fromKey) >= 0 && key.compareTo(toKey) < 0);
+	}
+
+	/**
+	 * Performs the given action for every key-value pair of the dictionary, in lexicographical order of keys.
+	 * The dictionary must not be modified by the action.
+	 *
+	 * @param action the action to perform for every key &amp; its value
+	 *
+	 * @throws NullPointerException if the action is <tt>null</tt>
+	 */
+	default void forEach(final BiConsumer<? super String, ? super V> action) {
+		Objects.requireNonNull(action);
+
+		keys().forEach(key -> action.accept(key, get(key).orElse(null)));
+	}
+
+	/**
+	 * Returns the longest key of the dictionary which is a prefix of the input, e.g. the most specific route of a
+	 * path or the longest token at the start of a text.
+	 * <p>
+	 * Usage:
+	 * Consider the state of the dictionary with the following words: "/api", "/api/users", "/static".
+	 * <pre>{@code
+	 * 		final Optional<String> route = dict.longestPrefixOf("/api/users/42"); // "/api/users"
+	 * }</pre>
+	 *
+	 * @param input the text to match the keys against, the whole of it is a prefix of itself
+	 *
+	 * @return the longest key which is a prefix of the input, or {@link Optional#empty()} if there is none
+	 *
+	 * @throws IllegalArgumentException if the input is empty
+	 * @throws NullPointerException     if the input is <tt>null</tt>
+	 */
+	default Optional<String> longestPrefixOf(final CharSequence input) {
+		validateKey(input);
+
+		for (int length = input.length(); length > 0; --length)
+			if (containsKey(input.subSequence(0, length))) return Optional.of(input.subSequence(0, length).toString());
+
+		return Optional.empty();
+	}
+
+	/**
+	 * Returns all the keys of the dictionary which are prefixes of the input, from the shortest to the longest.
+	 *
+	 * @param input the text to match the keys against, the whole of it is a prefix of itself
+	 *
+	 * @return a {@link List} of the keys which are prefixes of the input
+	 *
+	 * @throws IllegalArgumentException if the input is empty
+	 * @throws NullPointerException     if the input is <tt>null</tt>
+	 * @see #longestPrefixOf(CharSequence)
+	 */
+	default List<String> prefixesOf(final CharSequence input) {
+		validateKey(input);
+
+		final List<String> prefixes = new ArrayList<>();
+		for (int length = 1; length <= input.length(); ++length)
+			if (containsKey(input.subSequence(0, length))) prefixes.add(input.subSequence(0, length).toString());
+
+		return prefixes;
+	}
+
+	/**
+	 * Searches the dictionary for the keys within an edit distance of the term, for "did you mean" suggestions.
+	 * The edit distance is the Levenshtein distance: the smallest number of characters to insert, delete or
+	 * substitute to turn one string into the other.
+	 * Will return a list of matching keys as a {@link List} of max size <tt>limit</tt>, ordered by their edit
+	 * distance to the term, then lexicographically.
+	 * <p>
+	 * Usage:
+	 * Consider the state of the dictionary with the following words: "HELLO", "HELP", "HALO", "WORLD".
+	 * <pre>{@code
+	 * 		final List<String> suggestions = dict.fuzzySearch("HELO", 1, 10);
+	 * }</pre>
+	 * <p>
+	 * Contents of list <tt>suggestions</tt> would be (in order) "HALO", "HELLO", "HELP".
+	 *
+	 * @param term     the term to search for, need not be present
+	 * @param maxEdits the maximum edit distance of the returned keys to the term
+	 * @param limit    the maximum number of keys to return
+	 *
+	 * @return a {@link List} of keys within <tt>maxEdits</tt> of the term, up to a maximum of <tt>limit</tt>
+	 *
+	 * @throws IllegalArgumentException if the term is empty, maxEdits is negative or limit is not positive
+	 * @throws NullPointerException     if the term is <tt>null</tt>
+	 */
+	default List<String> fuzzySearch(final String term, final int maxEdits, final int limit) {
+		validateKey(term);
+		if (maxEdits < 0)
+			throw new IllegalArgumentException("Maximum number of edits is negative");
+		if (limit < 1)
+			throw new IllegalArgumentException("Count of values to return is not a positive number");
+
+		final List<List<String>> keysByEdits = new ArrayList<>(maxEdits + 1);
+		for (int i = 0; i <= maxEdits; ++i) keysByEdits.add(new ArrayList<>());
+
+		final int[][] rows = new int[2][term.length() + 1];
+		forEach((key, value) -> {
+			if (Math.abs(key.length() - term.length()) > maxEdits) return;
+
+			int[] previous = rows[0];
+			int[] row = rows[1];
+			for (int j = 0; j <= term.length(); ++j) previous[j] = j;
+			for (int i = 1; i <= key.length(); ++i) {
+				row[0] = i;
+				int min = i;
+				for (int j = 1; j <= term.length(); ++j) {
+					final int cost = key.charAt(i - 1) == term.charAt(j - 1) ? 0 : 1;
+					row[j] = Math.min(Math.min(previous[j], row[j - 1]) + 1, previous[j - 1] + cost);
+					min = Math.min(min, row[j]);
+				}
+				if (min > maxEdits) return;
+
+				final int[] swap = previous;
+				previous = row;
+				row = swap;
+			}
+
+			final int edits = previous[term.length()];
+			if (edits <= maxEdits) keysByEdits.get(edits).add(key);
+		});
+
+		return keysByEdits.stream()
+				.flatMap(List::stream)
+				.limit(limit)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Searches the dictionary for the keys matching a wildcard pattern, where <tt>?</tt> matches any single character
+	 * and <tt>*</tt> matches any run of characters, possibly empty; all other characters match themselves.
+	 * Will return a list of matching keys as a {@link List} of max size <tt>count</tt>, in lexicographical order.
+	 * <p>
+	 * Usage:
+	 * Consider the state of the dictionary with the following words: "BAT", "BOAT", "BOOT", "BOOST", "COAT".
+	 * <pre>{@code
+	 * 		final List<String> a = dict.getKeysMatching("B?T", 10);
+	 * 		final List<String> b = dict.getKeysMatching("*OAT", 10);
+	 * }</pre>
+	 * <p>
+	 * Contents of list <tt>a</tt> would be "BAT".
+	 * Whereas contents of list <tt>b</tt> would be (in order) "BOAT", "COAT".
+	 *
+	 * @param pattern the pattern to match the keys against
+	 * @param count   the maximum number of words to return
+	 *
+	 * @return a {@link List} of keys that match the pattern, up to a maximum of <tt>count</tt>
+	 *
+	 * @throws IllegalArgumentException if the pattern is empty or count is not positive
+	 * @throws NullPointerException     if the pattern is <tt>null</tt>
+	 */
+	default List<String> getKeysMatching(final String pattern, final int count) {
+		validateKey(pattern);
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return is not a positive number");
+
+		int wildcard = 0;
+		while (wildcard < pattern.length() && pattern.charAt(wildcard) != '?' && pattern.charAt(wildcard) != '*')
+			wildcard++;
+		if (wildcard == pattern.length())
+			return containsKey(pattern) ? Collections.singletonList(pattern) : Collections.emptyList();
+
+		// only the keys starting with the characters before the first wildcard can match
+		final Stream<String> keys = wildcard > 0
+				? keysWithPrefix(pattern.substring(0, wildcard))
+				: keys();
+		return keys.filter(key -> {
+					// on a mismatch, only the last `*` has to match one more character, the earlier ones never do
+					int k = 0;
+					int p = 0;
+					int star = -1;
+					int starK = 0;
+					while (k < key.length()) {
+						if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == key.charAt(k))) {
+							k++;
+							p++;
+						} else if (p < pattern.length() && pattern.charAt(p) == '*') {
+							star = p++;
+							starK = k;
+						} else if (star >= 0) {
+							p = star + 1;
+							k = ++starK;
+						} else return false;
+					}
+					while (p < pattern.length() && pattern.charAt(p) == '*') p++;
+
+					return p == pattern.length();
+				})
+				.limit(count)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Searches the dictionary for the keys matching a regular expression, in its whole.
+	 * Will return a list of matching keys as a {@link List} of max size <tt>count</tt>, in lexicographical order.
+	 * <p>
+	 * The supported syntax is the one of {@link RegexAutomaton}: character classes, alternation, groups &amp;
+	 * repetition, bounded or not.
+	 * <p>
+	 * Usage, for the keys of product codes from two series:
+	 * <pre>{@code
+	 * 		final List<String> codes = dict.getKeysMatchingRegex("(AB|XZ)-[0-9]{3}", 100);
+	 * }</pre>
+	 *
+	 * @param regex the regular expression to match the keys against
+	 * @param count the maximum number of words to return
+	 *
+	 * @return a {@link List} of keys that match the expression, up to a maximum of <tt>count</tt>
+	 *
+	 * @throws java.util.regex.PatternSyntaxException if the expression is not valid
+	 * @throws IllegalArgumentException               if the expression is empty or count is not positive
+	 * @throws NullPointerException                   if the expression is <tt>null</tt>
+	 */
+	default List<String> getKeysMatchingRegex(final String regex, final int count) {
+		validateKey(regex);
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return is not a positive number");
+
+		final RegexAutomaton automaton = RegexAutomaton.compile(regex);
+		return keys()
+				.filter(automaton::matches)
+				.limit(count)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Searches the dictionary for the keys that end with the given suffix.
+	 * Will return a list of matching keys as a {@link List} of max size <tt>count</tt>, in lexicographical order.
+	 * <p>
+	 * This looks at every key of the dictionary, implementations which keep an index of the suffixes of their keys
+	 * answer it in time proportional to the suffix &amp; the matching keys instead.
+	 *
+	 * @param suffix the suffix to search for
+	 * @param count  the maximum number of words to return
+	 *
+	 * @return a {@link List} of keys that end with the suffix, up to a maximum of <tt>count</tt>
+	 *
+	 * @throws IllegalArgumentException if the suffix is empty or count is not positive
+	 * @throws NullPointerException     if the suffix is <tt>null</tt>
+	 */
+	default List<String> getKeysWithSuffix(final String suffix, final int count) {
+		validateKey(suffix);
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return is not a positive number");
+
+		return keys()
+				.filter(key -> key.endsWith(suffix))
+				.limit(count)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Searches the dictionary for the keys that contain the given string anywhere, a key equal to it included.
+	 * Will return a list of matching keys as a {@link List} of max size <tt>count</tt>, in lexicographical order.
+	 * <p>
+	 * This looks at every key of the dictionary, implementations which keep an index of the suffixes of their keys
+	 * answer it in time proportional to the string &amp; its occurrences instead.
+	 *
+	 * @param infix the string to search for
+	 * @param count the maximum number of words to return
+	 *
+	 * @return a {@link List} of keys that contain the string, up to a maximum of <tt>count</tt>
+	 *
+	 * @throws IllegalArgumentException if the string is empty or count is not positive
+	 * @throws NullPointerException     if the string is <tt>null</tt>
+	 */
+	default List<String> getKeysContaining(final String infix, final int count) {
+		validateKey(infix);
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return is not a positive number");
+
+		return keys()
+				.filter(key -> key.contains(infix))
+				.limit(count)
+				.collect(Collectors.toList());
+	}
+
 	/**
 	 * Removes the key from this dictionary if it is present (optional operation).
 	 * <p>
@@ -250,6 +928,76 @@ public interface Dictionary<V> {
 				});
 	}
 
+	/**
+	 * Attempts to compute a new value object for the key and its current value object (or <tt>null</tt> if the key
+	 * is absent) using {@code remappingFunction} and associating it with the key.
+	 * Returns the new mapped value.
+	 * <p>
+	 * If the function returns <tt>null</tt>, the mapping is removed (or remains absent if initially absent).
+	 * If the function itself throws an (unchecked) exception, the exception is rethrown, and the current mapping is
+	 * left unchanged.
+	 * <p>
+	 * For example, to either create or append a {@link String} message to a value mapping:
+	 * <pre>
+	 * {@code
+	 * 		dictionary.compute(key, (k, v) -> (v == null) ? msg : v.concat(msg));
+	 * }
+	 * </pre>
+	 *
+	 * @param key               the key to compute a value for
+	 * @param remappingFunction the function to compute the new value object
+	 *
+	 * @return the new value object associated with the key, or {@link Optional#empty()} if there is none
+	 *
+	 * @throws NullPointerException     if the key or {@code remappingFunction} is <tt>null</tt>
+	 * @throws IllegalArgumentException if the key is empty
+	 */
+	default Optional<V> compute(final String key,
+								final BiFunction<String, ? super V, ? extends V> remappingFunction) {
+		Objects.requireNonNull(remappingFunction);
+		validateKey(key);
+
+		final Optional<V> oldVal = get(key);
+		final V newValue = remappingFunction.apply(key, oldVal.orElse(null));
+		if (newValue == null) {
+			if (oldVal.isPresent()) remove(key);
+		} else put(key, newValue);
+
+		return Optional.ofNullable(newValue);
+	}
+
+	/**
+	 * If the key is absent, associates it with the given value object.
+	 * Otherwise, replaces the associated value object with the result of {@code remappingFunction} applied to the
+	 * current and the given value object, or removes the key if the result is <tt>null</tt>.
+	 * <p>
+	 * This method is useful when combining multiple values for a key, e.g. counting occurrences of words:
+	 * <pre>
+	 * {@code
+	 * 		dictionary.merge(word, 1, Integer::sum);
+	 * }
+	 * </pre>
+	 *
+	 * @param key               the key with which the resulting value is to be associated
+	 * @param value             the value object to be merged with the existing one, or associated with the key if
+	 *                          absent
+	 * @param remappingFunction the function to recompute a value object if present
+	 *
+	 * @return the new value object associated with the key, or {@link Optional#empty()} if there is none
+	 *
+	 * @throws NullPointerException     if the key, value or {@code remappingFunction} is <tt>null</tt>
+	 * @throws IllegalArgumentException if the key is empty
+	 */
+	default Optional<V> merge(final String key,
+							  final V value,
+							  final BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		Objects.requireNonNull(remappingFunction);
+		validateKey(key);
+		validateValue(value);
+
+		return compute(key, (k, oldValue) -> oldValue == null ? value : remappingFunction.apply(oldValue, value));
+	}
+
 	/**
 	 * @param key a {@link String} representing a key to validate
 	 *
@@ -261,6 +1009,42 @@ public interface Dictionary<V> {
 		if (key.isEmpty()) throw new IllegalArgumentException("Key is empty");
 	}
 
+	/**
+	 * Same as {@link #validateKey(String)} for a key given as any {@link CharSequence}, a {@link String} key is
+	 * passed on to {@link #validateKey(String)} so that implementations overriding it keep validating every key.
+	 *
+	 * @param key a {@link CharSequence} representing a key to validate
+	 *
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 * @throws IllegalArgumentException if the key is empty
+	 */
+	default void validateKey(final CharSequence key) {
+		if (key instanceof String) {
+			validateKey((String) key);
+			return;
+		}
+
+		if (key == null) throw new NullPointerException("Key is null");
+		if (key.length() == 0) throw new IllegalArgumentException("Key is empty");
+	}
+
+	/**
+	 * @param key    an array holding a key to validate
+	 * @param offset index of the first character of the key in the array
+	 * @param length number of characters in the key
+	 *
+	 * @throws NullPointerException      if the key is <tt>null</tt>
+	 * @throws IllegalArgumentException  if the key is empty
+	 * @throws IndexOutOfBoundsException if the slice is not within the array
+	 */
+	default void validateKey(final char[] key, final int offset, final int length) {
+		if (key == null) throw new NullPointerException("Key is null");
+		if (offset < 0 || length < 0 || offset > key.length - length)
+			throw new IndexOutOfBoundsException("Key slice [" + offset + ", " + (offset + length) + ") is out of " +
+					"bounds for length " + key.length);
+		if (length == 0) throw new IllegalArgumentException("Key is empty");
+	}
+
 	/**
 	 * @param value an value object to validate of type {@code V}
 	 *
@@ -0,0 +1,320 @@
+package vinaygaykar.automaton;
+
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Objects;
+
+import vinaygaykar.Dictionary;
+
+
+/**
+ * An Aho-Corasick automaton, compiled from the keys of a {@link Dictionary}, which finds all the occurrences of any
+ * of the keys in a text in a single pass over the text, whatever the number of keys.
+ * <p>
+ * The automaton is a trie of the keys with two more links per state: the failure link, to the state of the longest
+ * proper suffix of the state's path which is also a path of the trie, followed when the next character of the text
+ * has no transition; and the output link, to the closest state on the chain of failure links at which a key ends, to
+ * report the shorter keys ending at the same position without walking the whole chain.
+ * <p>
+ * States are numbered in breadth first order and stored in flat arrays rather than as node objects. As the children
+ * of a state are then numbered consecutively, the transitions of a state are the range of states between its first
+ * child and the first child of the next state, sorted by their character, and are found by binary search.
+ * <p>
+ * The automaton is a snapshot of the keys &amp; values at the time of compilation, later modifications of the
+ * dictionary are not reflected, and it can be shared between threads once compiled.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * 		final AhoCorasick<Integer> automaton = AhoCorasick.compile(keywords);
+ * 		automaton.scan("he said she sells", (position, key, value) -> System.out.println(key + " at " + position));
+ * }</pre>
+ *
+ * @param <V> the type of the values that are stored
+ *
+ * @author Vinay Gaykar
+ */
+public final class AhoCorasick<V> {
+
+	private static final int BUFFER_SIZE = 8192;
+
+
+	/**
+	 * Character of the transition into every state, the root excluded.
+	 */
+	private final char[] labels;
+
+	/**
+	 * First child of every state, the children of state <tt>s</tt> being the states from <tt>children[s]</tt> to
+	 * <tt>children[s + 1]</tt> (exclusive).
+	 */
+	private final int[] children;
+
+	private final int[] failures;
+
+	/**
+	 * Next state on the chain of failure links at which a key ends, or 0 if there is none.
+	 */
+	private final int[] outputs;
+
+	/**
+	 * Index of the key ending at every state, or -1 if none does.
+	 */
+	private final int[] keyIndices;
+
+	private final String[] keys;
+
+	private final Object[] values;
+
+
+	private AhoCorasick(final Keywords keywords) {
+		final int count = keywords.size;
+		this.labels = new char[count];
+		this.children = new int[count + 1];
+		this.failures = new int[count];
+		this.outputs = new int[count];
+		this.keyIndices = new int[count];
+		this.keys = Arrays.copyOf(keywords.keys, keywords.countOfKeys);
+		this.values = Arrays.copyOf(keywords.values, keywords.countOfKeys);
+
+		// renumber the nodes of the trie in breadth first order
+		final int[] order = new int[count];
+		int tail = 1;
+		for (int state = 0; state < count; ++state) {
+			final int node = order[state];
+			keyIndices[state] = keywords.keyIndices[node];
+			children[state] = tail;
+			for (int child = keywords.firstChildren[node]; child >= 0; child = keywords.nextSiblings[child]) {
+				labels[tail] = keywords.labels[child];
+				order[tail++] = child;
+			}
+		}
+		children[count] = count;
+
+		// the failure link of a state is found from the one of its parent, which is closer to the root
+		for (int state = 0; state < count; ++state) {
+			for (int child = children[state]; child < children[state + 1]; ++child) {
+				int failure = 0;
+				if (state != 0) {
+					int suffix = failures[state];
+					while ((failure = transition(suffix, labels[child])) < 0 && suffix != 0)
+						suffix = failures[suffix];
+					failure = Math.max(failure, 0);
+				}
+
+				failures[child] = failure;
+				outputs[child] = keyIndices[failure] >= 0 ? failure : outputs[failure];
+			}
+		}
+	}
+
+	/**
+	 * Compiles the keys &amp; values of the dictionary into an automaton.
+	 *
+	 * @param dictionary the dictionary holding the keys to search for
+	 * @param <V>        the type of the values that are stored
+	 *
+	 * @return the automaton
+	 *
+	 * @throws NullPointerException if the dictionary is <tt>null</tt>
+	 */
+	public static <V> AhoCorasick<V> compile(final Dictionary<V> dictionary) {
+		Objects.requireNonNull(dictionary);
+
+		final Keywords keywords = new Keywords();
+		dictionary.forEach(keywords::add);
+		return new AhoCorasick<>(keywords);
+	}
+
+	/**
+	 * Reports every occurrence of every key in the text, overlapping ones included, to the listener.
+	 *
+	 * @param text     the text to search in
+	 * @param listener the listener receiving the occurrences
+	 *
+	 * @throws NullPointerException if the text or listener is <tt>null</tt>
+	 */
+	public void scan(final CharSequence text, final MatchListener<? super V> listener) {
+		Objects.requireNonNull(text);
+		Objects.requireNonNull(listener);
+
+		int state = 0;
+		for (int i = 0; i < text.length(); ++i) {
+			state = next(state, text.charAt(i));
+			report(state, i + 1L, listener);
+		}
+	}
+
+	/**
+	 * Reports every occurrence of every key in the characters read from the reader, overlapping ones included, to
+	 * the listener, as they are read and without holding more than a small buffer of them.
+	 * The reader is read until its end but is not closed.
+	 *
+	 * @param reader   the reader to search in
+	 * @param listener the listener receiving the occurrences, with their position counted from the first character
+	 *                 read
+	 *
+	 * @throws IOException          if reading fails
+	 * @throws NullPointerException if the reader or listener is <tt>null</tt>
+	 */
+	public void scan(final Reader reader, final MatchListener<? super V> listener) throws IOException {
+		Objects.requireNonNull(reader);
+		Objects.requireNonNull(listener);
+
+		final char[] buffer = new char[BUFFER_SIZE];
+		long position = 0;
+		int state = 0;
+		int read;
+		while ((read = reader.read(buffer)) >= 0) {
+			for (int i = 0; i < read; ++i) {
+				state = next(state, buffer[i]);
+				report(state, ++position, listener);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of keys searched for
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	private int next(final int state, final char ch) {
+		int current = state;
+		while (true) {
+			final int next = transition(current, ch);
+			if (next >= 0) return next;
+			if (current == 0) return 0;
+
+			current = failures[current];
+		}
+	}
+
+	/**
+	 * @return the child of the state with the character, or -1 if there is none
+	 */
+	private int transition(final int state, final char ch) {
+		int low = children[state];
+		int high = children[state + 1] - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final char label = labels[mid];
+			if (label < ch) low = mid + 1;
+			else if (label > ch) high = mid - 1;
+			else return mid;
+		}
+
+		return -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void report(final int state, final long end, final MatchListener<? super V> listener) {
+		for (int current = keyIndices[state] >= 0 ? state : outputs[state]; current != 0; current = outputs[current]) {
+			final int index = keyIndices[current];
+			listener.onMatch(end - keys[index].length(), keys[index], (V) values[index]);
+		}
+	}
+
+
+	/**
+	 * The trie of the keys while compiling, with nodes numbered in the order they are added and children kept as
+	 * linked lists. Keys must be added in lexicographical order, so that every new node is the last child of its
+	 * parent and no child ever has to be searched for.
+	 */
+	private static final class Keywords {
+
+		private char[] labels;
+
+		private int[] firstChildren;
+
+		private int[] lastChildren;
+
+		private int[] nextSiblings;
+
+		private int[] keyIndices;
+
+		private int size;
+
+		private String[] keys;
+
+		private Object[] values;
+
+		private int countOfKeys;
+
+		/**
+		 * Nodes along the path of the last added key.
+		 */
+		private int[] path;
+
+
+		private Keywords() {
+			this.labels = new char[64];
+			this.firstChildren = new int[64];
+			this.lastChildren = new int[64];
+			this.nextSiblings = new int[64];
+			this.keyIndices = new int[64];
+			this.size = 0;
+			this.keys = new String[16];
+			this.values = new Object[16];
+			this.countOfKeys = 0;
+			this.path = new int[16];
+
+			newNode('\0');
+		}
+
+		private void add(final String key, final Object value) {
+			final String previous = countOfKeys == 0 ? null : keys[countOfKeys - 1];
+			int common = 0;
+			if (previous != null) {
+				if (previous.compareTo(key) >= 0)
+					throw new IllegalStateException("Keys are not in increasing order, " + previous + " before " + key);
+
+				final int max = Math.min(previous.length(), key.length());
+				while (common < max && previous.charAt(common) == key.charAt(common)) common++;
+			}
+
+			if (key.length() >= path.length) path = Arrays.copyOf(path, Math.max(path.length * 2, key.length() + 1));
+
+			int node = path[common];
+			for (int i = common; i < key.length(); ++i) {
+				final int child = newNode(key.charAt(i));
+				if (lastChildren[node] < 0) firstChildren[node] = child;
+				else nextSiblings[lastChildren[node]] = child;
+				lastChildren[node] = child;
+
+				node = child;
+				path[i + 1] = node;
+			}
+
+			if (countOfKeys == keys.length) {
+				keys = Arrays.copyOf(keys, countOfKeys * 2);
+				values = Arrays.copyOf(values, countOfKeys * 2);
+			}
+			keyIndices[node] = countOfKeys;
+			keys[countOfKeys] = key;
+			values[countOfKeys++] = value;
+		}
+
+		private int newNode(final char label) {
+			if (size == labels.length) {
+				final int capacity = size * 2;
+				labels = Arrays.copyOf(labels, capacity);
+				firstChildren = Arrays.copyOf(firstChildren, capacity);
+				lastChildren = Arrays.copyOf(lastChildren, capacity);
+				nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+				keyIndices = Arrays.copyOf(keyIndices, capacity);
+			}
+
+			labels[size] = label;
+			firstChildren[size] = -1;
+			lastChildren[size] = -1;
+			nextSiblings[size] = -1;
+			keyIndices[size] = -1;
+			return size++;
+		}
+
+	}
+
+}
@@ -0,0 +1,30 @@
+package vinaygaykar.automaton;
+
+
+/**
+ * A callback receiving the occurrences of keys found by {@link AhoCorasick#scan(CharSequence, MatchListener)}.
+ * <p>
+ * Usage, printing every keyword found in a log line:
+ * <pre>{@code
+ * 		automaton.scan(line, (position, key, value) -> System.out.println(key + " at " + position));
+ * }</pre>
+ *
+ * @param <V> the type of the values that are stored
+ *
+ * @author Vinay Gaykar
+ */
+@FunctionalInterface
+public interface MatchListener<V> {
+
+	/**
+	 * Receives an occurrence of a key.
+	 * Occurrences are reported in increasing order of their end position, occurrences ending at the same position from
+	 * the longest key to the shortest.
+	 *
+	 * @param position index of the first character of the occurrence in the scanned text
+	 * @param key      the key that occurs
+	 * @param value    the value of the key
+	 */
+	void onMatch(final long position, final String key, final V value);
+
+}
@@ -0,0 +1,706 @@
+package vinaygaykar.automaton;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.PatternSyntaxException;
+
+
+/**
+ * A deterministic automaton matching whole strings against a regular expression, which can be stepped one character
+ * at a time, e.g. in lockstep with a walk of a Trie so that a branch is abandoned as soon as no string starting with
+ * it can match.
+ * <p>
+ * Supported syntax, a subset of {@link java.util.regex.Pattern}:
+ * <ul>
+ *     <li>literal characters, and any metacharacter escaped with <tt>\</tt></li>
+ *     <li><tt>.</tt> for any character</li>
+ *     <li>character classes such as <tt>[abc]</tt>, <tt>[a-z0-9]</tt> or <tt>[^aeiou]</tt>, and the predefined
+ *     classes <tt>\d</tt>, <tt>\w</tt>, <tt>\s</tt> &amp; their negations <tt>\D</tt>, <tt>\W</tt>, <tt>\S</tt></li>
+ *     <li>groups <tt>(...)</tt>, or <tt>(?:...)</tt>, and alternation <tt>|</tt></li>
+ *     <li>repetition with <tt>*</tt>, <tt>+</tt>, <tt>?</tt>, <tt>{n}</tt>, <tt>{n,}</tt> &amp; <tt>{n,m}</tt></li>
+ * </ul>
+ * The whole string is always matched, so there are no anchors, and there are no backreferences nor lookarounds.
+ * <p>
+ * The expression is compiled to a nondeterministic automaton, and the states of the deterministic automaton, each a
+ * set of states of the former, are only built when first reached, along with their transitions. A walk of a Trie
+ * thus only builds the few states its keys lead to, instead of the possibly exponential number of states of the full
+ * deterministic automaton. As states are built while it is used, an automaton must not be shared between threads.
+ *
+ * @author Vinay Gaykar
+ */
+public final class RegexAutomaton {
+
+	/**
+	 * The state reached once no string can match anymore.
+	 */
+	public static final int DEAD = -1;
+
+	/**
+	 * Returned by {@link #nextChar(int)} when more than one character leads out of a state.
+	 */
+	public static final int MANY = -1;
+
+	/**
+	 * Returned by {@link #nextChar(int)} when no character leads out of a state.
+	 */
+	public static final int NONE = -2;
+
+	private static final int MAX_REPETITION = 1_000;
+
+	private static final int MAX_STATES = 100_000;
+
+	/**
+	 * Marks a transition or next character which is not computed yet.
+	 */
+	private static final int UNKNOWN = Integer.MIN_VALUE;
+
+	private static final char[] ANY_CHAR = { Character.MIN_VALUE, Character.MAX_VALUE };
+
+	private static final char[] DIGITS = { '0', '9' };
+
+	private static final char[] WORD_CHARS = { '0', '9', 'A', 'Z', '_', '_', 'a', 'z' };
+
+	private static final char[] SPACES = { '\t', '\r', ' ', ' ' };
+
+
+	/**
+	 * Sorted &amp; disjoint ranges of characters, as pairs of inclusive bounds, leading out of every state of the
+	 * nondeterministic automaton, <tt>null</tt> for states with epsilon transitions only.
+	 */
+	private char[][] ranges;
+
+	/**
+	 * State reached with one of the characters of the ranges, for every state with ranges.
+	 */
+	private int[] targets;
+
+	/**
+	 * States reached without a character, for every state without ranges but the accepting one.
+	 */
+	private int[][] epsilons;
+
+	private int countOfNfaStates;
+
+	private final int accepting;
+
+	private final int start;
+
+	private final List<State> states;
+
+	private final Map<StateSet, Integer> stateIds;
+
+	/**
+	 * Transitions of non ASCII characters, keyed by state &amp; character.
+	 */
+	private final Map<Long, Integer> otherTransitions;
+
+	/**
+	 * Scratch space for computing the epsilon closure of sets of states.
+	 */
+	private int[] marks;
+
+	private int generation;
+
+
+	private RegexAutomaton(final Expression expression) {
+		this.ranges = new char[16][];
+		this.targets = new int[16];
+		this.epsilons = new int[16][];
+		this.countOfNfaStates = 0;
+		this.accepting = newNfaState(null, -1, null);
+		final int nfaStart = compile(expression, accepting);
+
+		this.states = new ArrayList<>();
+		this.stateIds = new HashMap<>();
+		this.otherTransitions = new HashMap<>();
+		this.marks = new int[countOfNfaStates];
+		this.generation = 0;
+		this.start = closure(new int[]{ nfaStart }, 1);
+	}
+
+	/**
+	 * Compiles the regular expression.
+	 *
+	 * @param regex the regular expression
+	 *
+	 * @return the automaton
+	 *
+	 * @throws PatternSyntaxException   if the expression is not valid, or uses unsupported syntax
+	 * @throws IllegalArgumentException if the automaton of the expression is too large, e.g. because of nested
+	 *                                  counted repetitions
+	 * @throws NullPointerException     if the expression is <tt>null</tt>
+	 */
+	public static RegexAutomaton compile(final String regex) {
+		Objects.requireNonNull(regex);
+
+		return new RegexAutomaton(new Parser(regex).parse());
+	}
+
+	/**
+	 * @return the state before any character
+	 */
+	public int start() {
+		return start;
+	}
+
+	/**
+	 * Computes the state reached from a state with a character, building it if it was never reached before.
+	 *
+	 * @param state a state, other than {@link #DEAD}
+	 * @param ch    the next character
+	 *
+	 * @return the reached state, or {@link #DEAD} if no string continuing with the character can match
+	 */
+	public int step(final int state, final char ch) {
+		final State current = states.get(state);
+		if (ch < current.asciiTransitions.length) {
+			final int known = current.asciiTransitions[ch];
+			if (known != UNKNOWN) return known;
+		} else {
+			final Integer known = otherTransitions.get((long) state << 16 | ch);
+			if (known != null) return known;
+		}
+
+		final int[] seeds = new int[current.nfaStates.length];
+		int count = 0;
+		for (final int nfaState : current.nfaStates)
+			if (ranges[nfaState] != null && contains(ranges[nfaState], ch)) seeds[count++] = targets[nfaState];
+
+		final int next = closure(seeds, count);
+		if (ch < current.asciiTransitions.length) current.asciiTransitions[ch] = next;
+		else otherTransitions.put((long) state << 16 | ch, next);
+
+		return next;
+	}
+
+	/**
+	 * @param state a state, other than {@link #DEAD}
+	 *
+	 * @return true if the characters leading to the state match the whole expression
+	 */
+	public boolean accepts(final int state) {
+		return states.get(state).accepting;
+	}
+
+	/**
+	 * Tells whether a single character leads out of the state, e.g. for a literal part of the expression, so that it
+	 * can be looked up instead of trying all characters.
+	 *
+	 * @param state a state, other than {@link #DEAD}
+	 *
+	 * @return the only character leading out of the state, {@link #MANY} if more than one does or {@link #NONE} if
+	 * none does
+	 */
+	public int nextChar(final int state) {
+		final State current = states.get(state);
+		if (current.nextChar != UNKNOWN) return current.nextChar;
+
+		int next = NONE;
+		for (final int nfaState : current.nfaStates) {
+			final char[] stateRanges = ranges[nfaState];
+			if (stateRanges == null) continue;
+
+			for (int i = 0; i < stateRanges.length && next != MANY; i += 2) {
+				if (stateRanges[i] != stateRanges[i + 1] || next != NONE && next != stateRanges[i]) next = MANY;
+				else next = stateRanges[i];
+			}
+		}
+
+		current.nextChar = next;
+		return next;
+	}
+
+	/**
+	 * @param input the string to match
+	 *
+	 * @return true if the whole string matches the expression
+	 */
+	public boolean matches(final CharSequence input) {
+		int state = start;
+		for (int i = 0; i < input.length() && state != DEAD; ++i)
+			state = step(state, input.charAt(i));
+
+		return state != DEAD && accepts(state);
+	}
+
+	/**
+	 * Adds the states of the expression to the nondeterministic automaton, from the end of the expression backwards.
+	 *
+	 * @param next the state to reach once the expression is matched
+	 *
+	 * @return the first state of the expression
+	 */
+	private int compile(final Expression expression, final int next) {
+		switch (expression.kind) {
+			case Expression.SET:
+				return newNfaState(expression.ranges, next, null);
+			case Expression.CONCATENATION: {
+				int first = next;
+				for (int i = expression.items.size() - 1; i >= 0; --i)
+					first = compile(expression.items.get(i), first);
+				return first;
+			}
+			case Expression.ALTERNATION: {
+				final int[] firsts = new int[expression.items.size()];
+				for (int i = 0; i < firsts.length; ++i)
+					firsts[i] = compile(expression.items.get(i), next);
+				return newNfaState(null, -1, firsts);
+			}
+			default: {
+				final Expression item = expression.items.get(0);
+				int first;
+				if (expression.max < 0) {
+					// the item loops back to the state, which is only wired once the item is compiled as that may grow
+					// the arrays of states
+					first = newNfaState(null, -1, null);
+					final int loop = compile(item, first);
+					epsilons[first] = new int[]{ loop, next };
+				} else {
+					// optional repetitions nest, each one either matching the item or skipping to the end
+					first = next;
+					for (int i = expression.max - expression.min; i > 0; --i)
+						first = newNfaState(null, -1, new int[]{ compile(item, first), next });
+				}
+
+				for (int i = expression.min; i > 0; --i)
+					first = compile(item, first);
+				return first;
+			}
+		}
+	}
+
+	private int newNfaState(final char[] stateRanges, final int target, final int[] stateEpsilons) {
+		if (countOfNfaStates == MAX_STATES)
+			throw new IllegalArgumentException("Regular expression is too large");
+
+		if (countOfNfaStates == ranges.length) {
+			ranges = Arrays.copyOf(ranges, countOfNfaStates * 2);
+			targets = Arrays.copyOf(targets, countOfNfaStates * 2);
+			epsilons = Arrays.copyOf(epsilons, countOfNfaStates * 2);
+		}
+
+		ranges[countOfNfaStates] = stateRanges;
+		targets[countOfNfaStates] = target;
+		epsilons[countOfNfaStates] = stateEpsilons;
+		return countOfNfaStates++;
+	}
+
+	/**
+	 * Computes the set of states reachable from the given ones without a character, and returns the deterministic
+	 * state for it, building it if it is new.
+	 *
+	 * @return the deterministic state, or {@link #DEAD} if the set is empty
+	 */
+	private int closure(final int[] seeds, final int count) {
+		generation++;
+
+		final int[] stack = new int[countOfNfaStates];
+		int size = 0;
+		int[] reached = new int[Math.max(count, 4)];
+		int countOfReached = 0;
+		for (int i = 0; i < count; ++i) {
+			if (marks[seeds[i]] == generation) continue;
+
+			marks[seeds[i]] = generation;
+			stack[size++] = seeds[i];
+		}
+
+		while (size > 0) {
+			final int nfaState = stack[--size];
+			if (epsilons[nfaState] == null) {
+				if (countOfReached == reached.length) reached = Arrays.copyOf(reached, countOfReached * 2);
+				reached[countOfReached++] = nfaState;
+				continue;
+			}
+
+			for (final int next : epsilons[nfaState]) {
+				if (marks[next] == generation) continue;
+
+				marks[next] = generation;
+				stack[size++] = next;
+			}
+		}
+
+		if (countOfReached == 0) return DEAD;
+
+		final int[] nfaStates = Arrays.copyOf(reached, countOfReached);
+		Arrays.sort(nfaStates);
+		final StateSet key = new StateSet(nfaStates);
+		final Integer known = stateIds.get(key);
+		if (known != null) return known;
+
+		boolean accepts = false;
+		for (final int nfaState : nfaStates) accepts |= nfaState == accepting;
+
+		states.add(new State(nfaStates, accepts));
+		stateIds.put(key, states.size() - 1);
+		return states.size() - 1;
+	}
+
+	private static boolean contains(final char[] ranges, final char ch) {
+		int low = 0;
+		int high = ranges.length / 2 - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			if (ranges[2 * mid + 1] < ch) low = mid + 1;
+			else if (ranges[2 * mid] > ch) high = mid - 1;
+			else return true;
+		}
+
+		return false;
+	}
+
+
+	/**
+	 * A state of the deterministic automaton, with its transitions for ASCII characters.
+	 */
+	private static final class State {
+
+		private final int[] nfaStates;
+
+		private final boolean accepting;
+
+		private final int[] asciiTransitions;
+
+		private int nextChar;
+
+
+		private State(final int[] nfaStates, final boolean accepting) {
+			this.nfaStates = nfaStates;
+			this.accepting = accepting;
+			this.asciiTransitions = new int[128];
+			this.nextChar = UNKNOWN;
+
+			Arrays.fill(asciiTransitions, UNKNOWN);
+		}
+
+	}
+
+	/**
+	 * A sorted set of states of the nondeterministic automaton, as the key of a deterministic state.
+	 */
+	private static final class StateSet {
+
+		private final int[] nfaStates;
+
+		private final int hash;
+
+
+		private StateSet(final int[] nfaStates) {
+			this.nfaStates = nfaStates;
+			this.hash = Arrays.hashCode(nfaStates);
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			return o instanceof StateSet && Arrays.equals(nfaStates, ((StateSet) o).nfaStates);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+	}
+
+	/**
+	 * A node of the syntax tree of a regular expression.
+	 */
+	private static final class Expression {
+
+		private static final int SET = 0;
+
+		private static final int CONCATENATION = 1;
+
+		private static final int ALTERNATION = 2;
+
+		private static final int REPETITION = 3;
+
+
+		private final int kind;
+
+		private final char[] ranges;
+
+		private final List<Expression> items;
+
+		private final int min;
+
+		private final int max;
+
+
+		private Expression(final int kind,
+						   final char[] ranges,
+						   final List<Expression> items,
+						   final int min,
+						   final int max) {
+			this.kind = kind;
+			this.ranges = ranges;
+			this.items = items;
+			this.min = min;
+			this.max = max;
+		}
+
+		private static Expression set(final char[] ranges) {
+			return new Expression(SET, ranges, null, 0, 0);
+		}
+
+		private static Expression of(final int kind, final List<Expression> items) {
+			return items.size() == 1 ? items.get(0) : new Expression(kind, null, items, 0, 0);
+		}
+
+		private static Expression repetition(final Expression item, final int min, final int max) {
+			return new Expression(REPETITION, null, Collections.singletonList(item), min, max);
+		}
+
+	}
+
+	/**
+	 * A recursive descent parser of regular expressions, following the precedence of alternation, concatenation &amp;
+	 * repetition.
+	 */
+	private static final class Parser {
+
+		private final String regex;
+
+		private int pos;
+
+
+		private Parser(final String regex) {
+			this.regex = regex;
+			this.pos = 0;
+		}
+
+		private Expression parse() {
+			final Expression expression = alternation();
+			if (pos < regex.length()) throw error("Unmatched closing ')'");
+
+			return expression;
+		}
+
+		private Expression alternation() {
+			final List<Expression> alternatives = new ArrayList<>();
+			alternatives.add(concatenation());
+			while (pos < regex.length() && regex.charAt(pos) == '|') {
+				pos++;
+				alternatives.add(concatenation());
+			}
+
+			return Expression.of(Expression.ALTERNATION, alternatives);
+		}
+
+		private Expression concatenation() {
+			final List<Expression> items = new ArrayList<>();
+			while (pos < regex.length() && regex.charAt(pos) != '|' && regex.charAt(pos) != ')')
+				items.add(repetition());
+
+			return Expression.of(Expression.CONCATENATION, items);
+		}
+
+		private Expression repetition() {
+			Expression expression = atom();
+			while (pos < regex.length()) {
+				final char ch = regex.charAt(pos);
+				if (ch == '*') expression = Expression.repetition(expression, 0, -1);
+				else if (ch == '+') expression = Expression.repetition(expression, 1, -1);
+				else if (ch == '?') expression = Expression.repetition(expression, 0, 1);
+				else if (ch == '{') {
+					pos++;
+					final int min = number();
+					int max = min;
+					if (pos < regex.length() && regex.charAt(pos) == ',') {
+						pos++;
+						max = pos < regex.length() && regex.charAt(pos) == '}' ? -1 : number();
+					}
+					if (pos == regex.length() || regex.charAt(pos) != '}') throw error("Unclosed counted closure");
+					if (max >= 0 && max < min) throw error("Illegal repetition range");
+
+					expression = Expression.repetition(expression, min, max);
+				} else break;
+
+				pos++;
+			}
+
+			return expression;
+		}
+
+		private Expression atom() {
+			final char ch = regex.charAt(pos++);
+			switch (ch) {
+				case '(': {
+					if (regex.startsWith("?:", pos)) pos += 2;
+					final Expression group = alternation();
+					if (pos == regex.length()) throw error("Unclosed group");
+
+					pos++;
+					return group;
+				}
+				case '[':
+					return Expression.set(characterClass());
+				case '.':
+					return Expression.set(ANY_CHAR);
+				case '\\':
+					return Expression.set(escape());
+				case '*':
+				case '+':
+				case '?':
+				case '{':
+					throw error("Dangling meta character '" + ch + "'");
+				case '^':
+				case '$':
+					throw error("Anchors are not supported, the whole string is always matched");
+				default:
+					return Expression.set(new char[]{ ch, ch });
+			}
+		}
+
+		private char[] characterClass() {
+			final boolean negated = pos < regex.length() && regex.charAt(pos) == '^';
+			if (negated) pos++;
+
+			final StringBuilder bounds = new StringBuilder();
+			boolean first = true;
+			while (true) {
+				if (pos == regex.length()) throw error("Unclosed character class");
+
+				final char ch = regex.charAt(pos);
+				if (ch == ']' && !first) {
+					pos++;
+					break;
+				}
+				first = false;
+
+				final char low;
+				if (ch == '\\') {
+					pos++;
+					final char[] escaped = escape();
+					if (escaped.length > 2 || escaped[0] != escaped[1]) {
+						bounds.append(escaped);
+						continue;
+					}
+					low = escaped[0];
+				} else {
+					pos++;
+					low = ch;
+				}
+
+				char high = low;
+				if (pos + 1 < regex.length() && regex.charAt(pos) == '-' && regex.charAt(pos + 1) != ']') {
+					pos++;
+					if (regex.charAt(pos) == '\\') {
+						pos++;
+						final char[] escaped = escape();
+						if (escaped.length > 2 || escaped[0] != escaped[1]) throw error("Illegal character range");
+						high = escaped[0];
+					} else high = regex.charAt(pos++);
+
+					if (high < low) throw error("Illegal character range");
+				}
+				bounds.append(low).append(high);
+			}
+
+			final char[] ranges = normalize(bounds.toString().toCharArray());
+			return negated ? complement(ranges) : ranges;
+		}
+
+		private char[] escape() {
+			if (pos == regex.length()) throw error("Unexpected end of expression");
+
+			final char ch = regex.charAt(pos++);
+			switch (ch) {
+				case 'd':
+					return DIGITS;
+				case 'D':
+					return complement(DIGITS);
+				case 'w':
+					return WORD_CHARS;
+				case 'W':
+					return complement(WORD_CHARS);
+				case 's':
+					return SPACES;
+				case 'S':
+					return complement(SPACES);
+				case 't':
+					return new char[]{ '\t', '\t' };
+				case 'n':
+					return new char[]{ '\n', '\n' };
+				case 'r':
+					return new char[]{ '\r', '\r' };
+				case 'f':
+					return new char[]{ '\f', '\f' };
+				default:
+					if (Character.isLetterOrDigit(ch)) throw error("Unsupported escape sequence '\\" + ch + "'");
+					return new char[]{ ch, ch };
+			}
+		}
+
+		private int number() {
+			final int from = pos;
+			while (pos < regex.length() && Character.isDigit(regex.charAt(pos)) && pos - from < 5) pos++;
+			if (from == pos) throw error("Illegal repetition");
+
+			final int number = Integer.parseInt(regex.substring(from, pos));
+			if (number > MAX_REPETITION) throw error("Repetition count is larger than " + MAX_REPETITION);
+
+			return number;
+		}
+
+		private PatternSyntaxException error(final String description) {
+			return new PatternSyntaxException(description, regex, pos - 1);
+		}
+
+		/**
+		 * @return the ranges sorted, with overlapping &amp; adjacent ranges merged
+		 */
+		private static char[] normalize(final char[] bounds) {
+			final int count = bounds.length / 2;
+			final Integer[] order = new Integer[count];
+			for (int i = 0; i < count; ++i) order[i] = i;
+			Arrays.sort(order, (a, b) -> Character.compare(bounds[2 * a], bounds[2 * b]));
+
+			final char[] ranges = new char[bounds.length];
+			int size = 0;
+			for (final int i : order) {
+				final char low = bounds[2 * i];
+				final char high = bounds[2 * i + 1];
+				if (size > 0 && low <= ranges[size - 1] + 1) {
+					if (high > ranges[size - 1]) ranges[size - 1] = high;
+				} else {
+					ranges[size++] = low;
+					ranges[size++] = high;
+				}
+			}
+
+			return Arrays.copyOf(ranges, size);
+		}
+
+		/**
+		 * @return the ranges of all the characters not in the given sorted &amp; disjoint ranges
+		 */
+		private static char[] complement(final char[] ranges) {
+			final char[] complement = new char[ranges.length + 2];
+			int size = 0;
+			int next = Character.MIN_VALUE;
+			for (int i = 0; i < ranges.length; i += 2) {
+				if (ranges[i] > next) {
+					complement[size++] = (char) next;
+					complement[size++] = (char) (ranges[i] - 1);
+				}
+				next = ranges[i + 1] + 1;
+			}
+			if (next <= Character.MAX_VALUE) {
+				complement[size++] = (char) next;
+				complement[size++] = Character.MAX_VALUE;
+			}
+
+			return Arrays.copyOf(complement, size);
+		}
+
+	}
+
+}
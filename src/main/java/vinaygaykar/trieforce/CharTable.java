@@ -0,0 +1,460 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.Arrays;
+
+
+/**
+ * A primitive, {@code char} keyed table used by {@link Trie} nodes to hold their children.
+ * <p>
+ * A {@link java.util.HashMap} keyed by {@link Character} costs a boxed key, an entry object and a bucket array for
+ * every edge of the tree and autoboxes on every lookup. This table instead adapts its layout to the number of
+ * children, in the spirit of the node types of an Adaptive Radix Tree:
+ * <ul>
+ *     <li><b>linear</b>, up to {@value #LINEAR_MAX} children: sorted keys searched with a linear scan</li>
+ *     <li><b>sorted</b>, up to {@value #SORTED_MAX} children or keys spread wider than {@value #WINDOW}
+ *     characters: sorted keys searched with a binary search</li>
+ *     <li><b>indexed</b>, up to {@value #INDEXED_MAX} children: a {@value #WINDOW} byte index, addressed by
+ *     {@code key - base}, pointing into a compact array of children</li>
+ *     <li><b>direct</b>, beyond that: a {@value #WINDOW} slot array of children addressed by {@code key - base}</li>
+ * </ul>
+ * A table grows into the next layout as children are added and shrinks back, with some hysteresis to avoid
+ * flip-flopping, as children are removed.
+ * Since a {@code char} spans a much wider range than a byte, the indexed &amp; direct layouts only cover a window of
+ * {@value #WINDOW} characters; tables whose keys do not fit into a single window stay sorted.
+ * <p>
+ * Children are always kept in natural order of their keys, which allows ordered traversal without sorting.
+ * Iteration is done with <i>positions</i>:
+ * <pre>{@code
+ * 		for (int pos = table.first(); pos >= 0; pos = table.next(pos)) {
+ * 			final char key = table.keyAt(pos);
+ * 			final N child = table.valueAt(pos);
+ * 		}
+ * }</pre>
+ * Positions grow along with the keys, and are only valid until the next structural modification of the table.
+ *
+ * @param <N> the type of the children that are stored
+ *
+ * @author Vinay Gaykar
+ */
+public final class CharTable<N> {
+
+	static final int LINEAR_MAX = 4;
+
+	static final int SORTED_MAX = 16;
+
+	static final int INDEXED_MAX = 48;
+
+	static final int WINDOW = 256;
+
+	/**
+	 * Sizes at or below which a table shrinks into the previous layout.
+	 */
+	private static final int LINEAR_SHRINK = 2;
+
+	private static final int SORTED_SHRINK = 12;
+
+	private static final int INDEXED_SHRINK = 40;
+
+	private static final byte LINEAR = 0;
+
+	private static final byte SORTED = 1;
+
+	private static final byte INDEXED = 2;
+
+	private static final byte DIRECT = 3;
+
+	private static final char[] NO_KEYS = new char[0];
+
+	private static final Object[] NO_VALUES = new Object[0];
+
+
+	private byte layout;
+
+	/**
+	 * Sorted keys for linear &amp; sorted layouts, key of every slot for indexed layout.
+	 */
+	private char[] keys;
+
+	/**
+	 * Children parallel to {@link #keys} for linear, sorted &amp; indexed layouts, or addressed by
+	 * {@code key - base} for direct layout.
+	 */
+	private Object[] values;
+
+	/**
+	 * For indexed layout, <tt>1 + slot</tt> of the child addressed by {@code key - base}, or 0 if absent.
+	 */
+	private byte[] index;
+
+	private char base;
+
+	private int size;
+
+
+	public CharTable() {
+		this.layout = LINEAR;
+		this.keys = NO_KEYS;
+		this.values = NO_VALUES;
+		this.size = 0;
+	}
+
+	/**
+	 * @return number of children in this table
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return true if this table has no children
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Returns the child associated with the key, or <tt>null</tt> if the key is absent.
+	 *
+	 * @param key the key whose child is to be returned
+	 *
+	 * @return the child associated with the key, or <tt>null</tt>
+	 */
+	@SuppressWarnings("unchecked")
+	public N get(final char key) {
+		switch (layout) {
+			case LINEAR: {
+				for (int i = 0; i < size; ++i)
+					if (keys[i] == key) return (N) values[i];
+				return null;
+			}
+			case SORTED: {
+				final int i = Arrays.binarySearch(keys, 0, size, key);
+				return i >= 0 ? (N) values[i] : null;
+			}
+			case INDEXED: {
+				final int offset = key - base;
+				if (offset < 0 || offset >= WINDOW) return null;
+
+				final int slot = index[offset];
+				return slot != 0 ? (N) values[slot - 1] : null;
+			}
+			default: {
+				final int offset = key - base;
+				return (offset >= 0 && offset < WINDOW) ? (N) values[offset] : null;
+			}
+		}
+	}
+
+	/**
+	 * Associates the child with the key, replacing the existing child if any.
+	 *
+	 * @param key   the key of the child
+	 * @param child the child, must not be <tt>null</tt>
+	 *
+	 * @return the previous child associated with the key, or <tt>null</tt>
+	 */
+	@SuppressWarnings("unchecked")
+	public N put(final char key, final N child) {
+		if (child == null) throw new NullPointerException("Child is null");
+
+		if (layout == LINEAR || layout == SORTED) {
+			int i = search(key);
+			if (i >= 0) {
+				final N old = (N) values[i];
+				values[i] = child;
+				return old;
+			}
+
+			// a sorted table past an outlier key which has since been removed may hold too many keys to be indexed
+			if (size >= SORTED_MAX && fitsWindow(key)) {
+				if (size < INDEXED_MAX) toIndexed(key);
+				else toDirect(key);
+				return put(key, child);
+			}
+
+			i = -(i + 1);
+			if (size == keys.length) grow();
+			System.arraycopy(keys, i, keys, i + 1, size - i);
+			System.arraycopy(values, i, values, i + 1, size - i);
+			keys[i] = key;
+			values[i] = child;
+			size++;
+			return null;
+		}
+
+		if (key < base || key - base >= WINDOW) {
+			if (fitsWindow(key)) rebase(key);
+			else toSorted(size + 1);
+			return put(key, child);
+		}
+
+		final int offset = key - base;
+		if (layout == INDEXED) {
+			final int slot = index[offset];
+			if (slot != 0) {
+				final N old = (N) values[slot - 1];
+				values[slot - 1] = child;
+				return old;
+			}
+
+			if (size == INDEXED_MAX) {
+				toDirect(key);
+				return put(key, child);
+			}
+
+			keys[size] = key;
+			values[size] = child;
+			index[offset] = (byte) ++size;
+			return null;
+		}
+
+		final N old = (N) values[offset];
+		values[offset] = child;
+		if (old == null) size++;
+		return old;
+	}
+
+	/**
+	 * Removes the child associated with the key.
+	 *
+	 * @param key the key of the child to remove
+	 *
+	 * @return the removed child, or <tt>null</tt> if the key was absent
+	 */
+	@SuppressWarnings("unchecked")
+	public N remove(final char key) {
+		if (layout == LINEAR || layout == SORTED) {
+			final int i = search(key);
+			if (i < 0) return null;
+
+			final N old = (N) values[i];
+			System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+			System.arraycopy(values, i + 1, values, i, size - i - 1);
+			values[--size] = null;
+
+			if (layout == SORTED && size <= LINEAR_SHRINK) toLinear();
+			return old;
+		}
+
+		final int offset = key - base;
+		if (offset < 0 || offset >= WINDOW) return null;
+
+		if (layout == INDEXED) {
+			final int slot = index[offset] - 1;
+			if (slot < 0) return null;
+
+			// keep slots compact by moving the last slot into the freed one
+			final N old = (N) values[slot];
+			final int last = --size;
+			keys[slot] = keys[last];
+			values[slot] = values[last];
+			values[last] = null;
+			index[keys[slot] - base] = (byte) (slot + 1);
+			index[offset] = 0;
+
+			if (size <= SORTED_SHRINK) toSorted(size);
+			return old;
+		}
+
+		final N old = (N) values[offset];
+		if (old == null) return null;
+
+		values[offset] = null;
+		size--;
+		if (size <= INDEXED_SHRINK) toIndexed(keyAt(first()));
+		return old;
+	}
+
+	/**
+	 * @return position of the child with smallest key, or -1 if this table is empty
+	 */
+	public int first() {
+		return next(-1);
+	}
+
+	/**
+	 * @param pos a valid position or -1
+	 *
+	 * @return position of the child following the one at <tt>pos</tt>, or -1 if there is none
+	 */
+	public int next(final int pos) {
+		switch (layout) {
+			case LINEAR:
+			case SORTED:
+				return (pos + 1 < size) ? pos + 1 : -1;
+			case INDEXED:
+				for (int i = pos + 1; i < WINDOW; ++i)
+					if (index[i] != 0) return i;
+				return -1;
+			default:
+				for (int i = pos + 1; i < WINDOW; ++i)
+					if (values[i] != null) return i;
+				return -1;
+		}
+	}
+
+	/**
+	 * @return position of the child with largest key, or -1 if this table is empty
+	 */
+	public int last() {
+		return prev((layout == LINEAR || layout == SORTED) ? size : WINDOW);
+	}
+
+	/**
+	 * @param pos a valid position
+	 *
+	 * @return position of the child preceding the one at <tt>pos</tt>, or -1 if there is none
+	 */
+	public int prev(final int pos) {
+		switch (layout) {
+			case LINEAR:
+			case SORTED:
+				return pos - 1;
+			case INDEXED:
+				for (int i = pos - 1; i >= 0; --i)
+					if (index[i] != 0) return i;
+				return -1;
+			default:
+				for (int i = pos - 1; i >= 0; --i)
+					if (values[i] != null) return i;
+				return -1;
+		}
+	}
+
+	/**
+	 * @param pos a valid position
+	 *
+	 * @return key of the child at the position
+	 */
+	public char keyAt(final int pos) {
+		return (layout == LINEAR || layout == SORTED) ? keys[pos] : (char) (base + pos);
+	}
+
+	/**
+	 * @param pos a valid position
+	 *
+	 * @return child at the position
+	 */
+	@SuppressWarnings("unchecked")
+	public N valueAt(final int pos) {
+		return (N) (layout == INDEXED ? values[index[pos] - 1] : values[pos]);
+	}
+
+	private int search(final char key) {
+		if (layout == SORTED) return Arrays.binarySearch(keys, 0, size, key);
+
+		int i = 0;
+		while (i < size && keys[i] < key) i++;
+		return (i < size && keys[i] == key) ? i : -(i + 1);
+	}
+
+	private void grow() {
+		final int capacity;
+		if (layout == LINEAR && size == LINEAR_MAX) {
+			layout = SORTED;
+			capacity = SORTED_MAX / 2;
+		} else if (layout == LINEAR) {
+			capacity = Math.max(2, size * 2);
+		} else {
+			capacity = size + (size >> 1);
+		}
+
+		keys = Arrays.copyOf(keys, capacity);
+		values = Arrays.copyOf(values, capacity);
+	}
+
+	private boolean fitsWindow(final char key) {
+		final char min = keyAt(first());
+		final char max = keyAt(last());
+		return Math.max(max, key) - Math.min(min, key) < WINDOW;
+	}
+
+	private void toLinear() {
+		keys = Arrays.copyOf(keys, LINEAR_MAX);
+		values = Arrays.copyOf(values, LINEAR_MAX);
+		layout = LINEAR;
+	}
+
+	/**
+	 * Converts any layout into the indexed layout, the window starts at the smaller of the smallest key and
+	 * <tt>key</tt>.
+	 */
+	private void toIndexed(final char key) {
+		final char[] slotKeys = new char[INDEXED_MAX];
+		final Object[] slots = new Object[INDEXED_MAX];
+		final byte[] offsets = new byte[WINDOW];
+		final char start = (char) Math.min(key, keyAt(first()));
+
+		int slot = 0;
+		for (int pos = first(); pos >= 0; pos = next(pos)) {
+			slotKeys[slot] = keyAt(pos);
+			slots[slot] = valueAt(pos);
+			offsets[slotKeys[slot] - start] = (byte) ++slot;
+		}
+
+		this.keys = slotKeys;
+		this.values = slots;
+		this.index = offsets;
+		this.base = start;
+		this.layout = INDEXED;
+	}
+
+	/**
+	 * Converts any layout into the direct layout, the window starts at the smaller of the smallest key and
+	 * <tt>key</tt>.
+	 */
+	private void toDirect(final char key) {
+		final Object[] window = new Object[WINDOW];
+		final char start = (char) Math.min(key, keyAt(first()));
+		for (int pos = first(); pos >= 0; pos = next(pos))
+			window[keyAt(pos) - start] = valueAt(pos);
+
+		this.keys = NO_KEYS;
+		this.values = window;
+		this.index = null;
+		this.base = start;
+		this.layout = DIRECT;
+	}
+
+	private void toSorted(final int capacity) {
+		final char[] sortedKeys = new char[Math.max(SORTED_MAX, capacity)];
+		final Object[] sortedValues = new Object[sortedKeys.length];
+
+		int i = 0;
+		for (int pos = first(); pos >= 0; pos = next(pos)) {
+			sortedKeys[i] = keyAt(pos);
+			sortedValues[i] = valueAt(pos);
+			i++;
+		}
+
+		this.keys = sortedKeys;
+		this.values = sortedValues;
+		this.index = null;
+		this.layout = SORTED;
+	}
+
+	/**
+	 * Moves the window of an indexed or direct layout so that it starts at the smaller of the smallest key and
+	 * <tt>key</tt>.
+	 */
+	private void rebase(final char key) {
+		final char start = (char) Math.min(key, keyAt(first()));
+		final int shift = base - start;
+
+		if (layout == INDEXED) {
+			final byte[] offsets = new byte[WINDOW];
+			for (int slot = 0; slot < size; ++slot)
+				offsets[keys[slot] - start] = (byte) (slot + 1);
+			this.index = offsets;
+		} else {
+			final Object[] window = new Object[WINDOW];
+			for (int i = 0; i < WINDOW; ++i)
+				if (values[i] != null) window[i + shift] = values[i];
+			this.values = window;
+		}
+
+		this.base = start;
+	}
+
+}
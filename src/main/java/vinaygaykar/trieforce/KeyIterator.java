@@ -0,0 +1,256 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * A lazy {@link Iterator} over the keys under a node of a {@link Trie}, in lexicographical order.
+ * <p>
+ * Instead of recursing, the iterator keeps an explicit stack with one frame per level of the path it is currently at:
+ * the children of the node at that level and the position of the child being visited. Along with a single
+ * {@link StringBuilder} holding the key of that path, this is all the memory it holds, whatever the number of keys.
+ * <p>
+ * Besides iterating keys, {@link #advanceNode()} &amp; {@link #skipSubtree()} walk every node one at a time, which is
+ * what {@link Trie#visit(String, TrieVisitor)} is built on.
+ * <p>
+ * The Trie must not be modified while it is being iterated, the outcome of doing so is undefined.
+ *
+ * @param <V> the type of the values that are stored
+ *
+ * @author Vinay Gaykar
+ */
+final class KeyIterator<V> implements Iterator<String> {
+
+	private static final int NOT_STARTED = -2;
+
+
+	private final StringBuilder path;
+
+	private final int firstPos;
+
+	private final int lastPos;
+
+	private CharTable<?>[] tables;
+
+	private int[] positions;
+
+	private int[] lengths;
+
+	private int depth;
+
+	private Trie.Node<V> current;
+
+	private CharSequence upper;
+
+	private boolean ready;
+
+
+	/**
+	 * @param path the key of the node, i.e. the prefix completed up to the end of the label of the node
+	 * @param node the node to iterate the keys under
+	 */
+	KeyIterator(final StringBuilder path, final Trie.Node<V> node) {
+		this(path, node, node.isTerminal(), node.getChildren().first(), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Iterates the keys under a slice of the children of the node, as used by {@link KeySpliterator}.
+	 *
+	 * @param path     the key of the node
+	 * @param node     the node to iterate the keys under
+	 * @param withNode whether the key of the node itself is included
+	 * @param firstPos position of the first child to iterate, or -1 for none
+	 * @param lastPos  position of the last child to iterate
+	 */
+	KeyIterator(final StringBuilder path,
+				final Trie.Node<V> node,
+				final boolean withNode,
+				final int firstPos,
+				final int lastPos) {
+		this.path = path;
+		this.firstPos = firstPos;
+		this.lastPos = lastPos;
+		this.tables = new CharTable<?>[16];
+		this.positions = new int[16];
+		this.lengths = new int[16];
+		this.depth = 0;
+
+		push(node);
+		this.current = node;
+		this.ready = withNode;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (!ready) ready = advance();
+		if (ready && upper != null && compare(path, upper) >= 0) exhaust();
+		return ready;
+	}
+
+	@Override
+	public String next() {
+		if (!hasNext()) throw new NoSuchElementException();
+
+		ready = false;
+		return path.toString();
+	}
+
+	/**
+	 * Positions a freshly created iterator so that it continues with the keys greater than the given key, or greater
+	 * than or equal to it when inclusive, descending along the key once instead of iterating the keys before it.
+	 *
+	 * @param key       the key to seek to, need not be present
+	 * @param inclusive whether the key itself is to be returned, if present
+	 */
+	void seek(final CharSequence key, final boolean inclusive) {
+		// compare the key with the key of the node first, which all the iterated keys start with
+		final int common = Math.min(path.length(), key.length());
+		for (int i = 0; i < common; ++i) {
+			if (path.charAt(i) != key.charAt(i)) {
+				if (path.charAt(i) < key.charAt(i)) exhaust();
+				return;
+			}
+		}
+		if (key.length() < path.length()) return;
+
+		ready = false;
+		int i = path.length();
+		while (i < key.length()) {
+			final int top = depth - 1;
+			final CharTable<?> table = tables[top];
+			final char ch = key.charAt(i++);
+
+			int before = NOT_STARTED;
+			int pos = top == 0 ? firstPos : table.first();
+			for (; pos >= 0 && table.keyAt(pos) < ch; pos = table.next(pos)) before = pos;
+			if (pos < 0 || table.keyAt(pos) != ch) {
+				// continue with the first child greater than the character
+				positions[top] = before;
+				return;
+			}
+
+			@SuppressWarnings("unchecked") final Trie.Node<V> child = (Trie.Node<V>) table.valueAt(pos);
+			for (int j = 0; j < child.getLabelLength(); ++j, ++i) {
+				final char label = child.getLabelCharAt(j);
+				if (i == key.length() || label > key.charAt(i)) {
+					// all the keys under the child are greater than the key
+					positions[top] = before;
+					return;
+				} else if (label < key.charAt(i)) {
+					// all the keys under the child are smaller than the key
+					positions[top] = pos;
+					return;
+				}
+			}
+
+			positions[top] = pos;
+			path.setLength(lengths[top]);
+			path.append(ch);
+			child.appendLabel(path);
+			push(child);
+			current = child;
+		}
+
+		// the key of the current node is the key, all the keys under it are greater
+		ready = inclusive && current.isTerminal();
+	}
+
+	/**
+	 * Stops the iteration at the first key greater than or equal to the given key.
+	 *
+	 * @param key the exclusive upper bound of the iterated keys
+	 */
+	void limit(final CharSequence key) {
+		this.upper = key;
+	}
+
+	private static int compare(final CharSequence a, final CharSequence b) {
+		final int common = Math.min(a.length(), b.length());
+		for (int i = 0; i < common; ++i)
+			if (a.charAt(i) != b.charAt(i)) return Character.compare(a.charAt(i), b.charAt(i));
+
+		return Integer.compare(a.length(), b.length());
+	}
+
+	private void exhaust() {
+		Arrays.fill(tables, 0, depth, null);
+		depth = 0;
+		ready = false;
+	}
+
+	/**
+	 * Moves to the next terminal node in depth first order, leaving its key in {@link #path}.
+	 *
+	 * @return false if there are no more keys
+	 */
+	private boolean advance() {
+		while (advanceNode())
+			if (current.isTerminal()) return true;
+
+		return false;
+	}
+
+	/**
+	 * Moves to the next node in depth first order, whether terminal or not, leaving its key in the path.
+	 *
+	 * @return false if there are no more nodes
+	 */
+	boolean advanceNode() {
+		while (depth > 0) {
+			final int top = depth - 1;
+			final CharTable<?> table = tables[top];
+			final int pos;
+			if (positions[top] != NOT_STARTED) pos = table.next(positions[top]);
+			else pos = top == 0 ? firstPos : table.first();
+
+			if (pos < 0 || (top == 0 && pos > lastPos)) {
+				tables[top] = null;
+				depth--;
+				continue;
+			}
+
+			positions[top] = pos;
+			path.setLength(lengths[top]);
+			path.append(table.keyAt(pos));
+
+			@SuppressWarnings("unchecked") final Trie.Node<V> child = (Trie.Node<V>) table.valueAt(pos);
+			child.appendLabel(path);
+			push(child);
+			current = child;
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Skips the nodes under the node last moved to by {@link #advanceNode()}.
+	 */
+	void skipSubtree() {
+		tables[--depth] = null;
+	}
+
+	/**
+	 * @return the node last moved to, whose key is in the path
+	 */
+	Trie.Node<V> node() {
+		return current;
+	}
+
+	private void push(final Trie.Node<V> node) {
+		if (depth == tables.length) {
+			tables = Arrays.copyOf(tables, depth * 2);
+			positions = Arrays.copyOf(positions, depth * 2);
+			lengths = Arrays.copyOf(lengths, depth * 2);
+		}
+
+		tables[depth] = node.getChildren();
+		positions[depth] = NOT_STARTED;
+		lengths[depth] = path.length();
+		depth++;
+	}
+
+}
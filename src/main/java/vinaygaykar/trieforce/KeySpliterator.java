@@ -0,0 +1,158 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+
+/**
+ * A {@link Spliterator} over the keys under a node of a {@link Trie}, in lexicographical order, which splits at
+ * child boundaries so that the keys with a prefix can be processed by a parallel {@link java.util.stream.Stream}.
+ * <p>
+ * A spliterator covers the key of a node, optionally, followed by the keys under a contiguous slice of the children
+ * of that node. Splitting hands the first half of the slice, and the key of the node, to a new spliterator. When only
+ * a single child is left, the spliterator first descends into that child, so that long chains of nodes with a single
+ * child, which are common under a prefix, do not stop the split.
+ * Once traversal has started the spliterator does not split anymore.
+ * <p>
+ * Sizes are exact, as every node keeps the number of keys under it, so the spliterator is
+ * {@link Spliterator#SIZED} &amp; {@link Spliterator#SUBSIZED}.
+ * <p>
+ * The Trie must not be modified while it is being traversed, the outcome of doing so is undefined.
+ *
+ * @param <V> the type of the values that are stored
+ *
+ * @author Vinay Gaykar
+ */
+final class KeySpliterator<V> implements Spliterator<String> {
+
+	private static final int CHARACTERISTICS = ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+
+
+	private final StringBuilder path;
+
+	private Trie.Node<V> node;
+
+	private boolean withNode;
+
+	private int firstPos;
+
+	private int lastPos;
+
+	private long size;
+
+	private KeyIterator<V> iterator;
+
+
+	/**
+	 * @param path the key of the node, i.e. the prefix completed up to the end of the label of the node
+	 * @param node the node to split the keys under
+	 */
+	KeySpliterator(final StringBuilder path, final Trie.Node<V> node) {
+		this(path, node, node.isTerminal(), node.getChildren().first(), node.getChildren().last(),
+				node.getCountOfKeys());
+	}
+
+	private KeySpliterator(final StringBuilder path,
+						   final Trie.Node<V> node,
+						   final boolean withNode,
+						   final int firstPos,
+						   final int lastPos,
+						   final long size) {
+		this.path = path;
+		this.node = node;
+		this.withNode = withNode;
+		this.firstPos = firstPos;
+		this.lastPos = lastPos;
+		this.size = size;
+		this.iterator = null;
+	}
+
+	@Override
+	public boolean tryAdvance(final Consumer<? super String> action) {
+		Objects.requireNonNull(action);
+
+		final KeyIterator<V> keys = start();
+		if (!keys.hasNext()) return false;
+
+		action.accept(keys.next());
+		size--;
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(final Consumer<? super String> action) {
+		Objects.requireNonNull(action);
+
+		start().forEachRemaining(action);
+		size = 0L;
+	}
+
+	@Override
+	public Spliterator<String> trySplit() {
+		if (iterator != null) return null;
+
+		CharTable<?> children = node.getChildren();
+		while (!withNode && firstPos >= 0 && firstPos == lastPos) {
+			@SuppressWarnings("unchecked") final Trie.Node<V> child = (Trie.Node<V>) children.valueAt(firstPos);
+			child.appendLabel(path.append(children.keyAt(firstPos)));
+
+			children = child.getChildren();
+			node = child;
+			withNode = child.isTerminal();
+			firstPos = children.first();
+			lastPos = children.last();
+		}
+		if (firstPos < 0) return null;
+
+		int count = 0;
+		for (int pos = firstPos; pos >= 0 && pos <= lastPos; pos = children.next(pos)) count++;
+
+		// the first half of the children, or only the key of the node when a single child is left
+		final int mid;
+		final KeySpliterator<V> prefix;
+		if (count == 1) {
+			mid = firstPos;
+			prefix = new KeySpliterator<>(new StringBuilder(path), node, true, -1, -1, 1L);
+		} else {
+			long half = withNode ? 1L : 0L;
+			int pos = firstPos;
+			for (int i = count / 2; i > 0; --i) {
+				half += ((Trie.Node<?>) children.valueAt(pos)).getCountOfKeys();
+				pos = children.next(pos);
+			}
+			mid = pos;
+			prefix = new KeySpliterator<>(new StringBuilder(path), node, withNode, firstPos, children.prev(mid), half);
+		}
+
+		this.withNode = false;
+		this.firstPos = mid;
+		this.size -= prefix.size;
+
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return size;
+	}
+
+	@Override
+	public int characteristics() {
+		return CHARACTERISTICS;
+	}
+
+	@Override
+	public Comparator<? super String> getComparator() {
+		return null;
+	}
+
+	private KeyIterator<V> start() {
+		if (iterator == null)
+			iterator = new KeyIterator<>(path, node, withNode, firstPos, lastPos);
+		return iterator;
+	}
+
+}
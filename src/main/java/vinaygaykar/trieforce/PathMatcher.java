@@ -0,0 +1,56 @@
+package vinaygaykar.trieforce;
+
+
+/**
+ * Matches a path of a {@link Trie} against a pattern one character at a time, for a walk of the Trie which prunes
+ * the subtrees that cannot match.
+ * <p>
+ * The matcher keeps its state for every length of the path, so that the walk can step a character down and come
+ * back up just by using a shorter length again.
+ *
+ * @author Vinay Gaykar
+ * @see Trie#getKeysMatching(String, int)
+ * @see Trie#getKeysMatchingRegex(String, int)
+ */
+interface PathMatcher {
+
+	/**
+	 * Returned by {@link #literal(int)} when more than one character can follow the path.
+	 */
+	int ANY = -1;
+
+	/**
+	 * Returned by {@link #literal(int)} when no character can follow the path.
+	 */
+	int NONE = -2;
+
+
+	/**
+	 * Computes the state of the path extended by a character, from the state of the path.
+	 *
+	 * @param length the length of the extended path
+	 * @param ch     the last character of the extended path
+	 *
+	 * @return false if no key with the extended path as prefix can match
+	 */
+	boolean step(final int length, final char ch);
+
+	/**
+	 * @param length the length of the path
+	 *
+	 * @return true if the path matches the whole pattern
+	 */
+	boolean accepts(final int length);
+
+	/**
+	 * Tells whether the next character of the path is fixed by the pattern, so that a walk can look up that single
+	 * child instead of trying all of them.
+	 *
+	 * @param length the length of the path
+	 *
+	 * @return the only character which can follow the path, {@link #ANY} if more than one can or {@link #NONE} if
+	 * none can
+	 */
+	int literal(final int length);
+
+}
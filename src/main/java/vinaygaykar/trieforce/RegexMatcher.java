@@ -0,0 +1,53 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.Arrays;
+
+import vinaygaykar.automaton.RegexAutomaton;
+
+
+/**
+ * Matches a path of a {@link Trie} against a regular expression, keeping the state of a {@link RegexAutomaton} for
+ * every length of the path; a subtree is pruned as soon as the automaton reaches its dead state.
+ *
+ * @author Vinay Gaykar
+ */
+final class RegexMatcher implements PathMatcher {
+
+	private final RegexAutomaton automaton;
+
+	/**
+	 * State of the automaton for every length of the path, grown as the path gets longer.
+	 */
+	private int[] states;
+
+
+	RegexMatcher(final RegexAutomaton automaton) {
+		this.automaton = automaton;
+		this.states = new int[16];
+		this.states[0] = automaton.start();
+	}
+
+	@Override
+	public boolean step(final int length, final char ch) {
+		if (length == states.length) states = Arrays.copyOf(states, length * 2);
+
+		states[length] = automaton.step(states[length - 1], ch);
+		return states[length] != RegexAutomaton.DEAD;
+	}
+
+	@Override
+	public boolean accepts(final int length) {
+		return automaton.accepts(states[length]);
+	}
+
+	@Override
+	public int literal(final int length) {
+		final int next = automaton.nextChar(states[length]);
+		if (next == RegexAutomaton.MANY) return ANY;
+		if (next == RegexAutomaton.NONE) return NONE;
+
+		return next;
+	}
+
+}
@@ -1,9 +1,28 @@
 package vinaygaykar.trieforce;
 
 
+import java.util.ArrayList;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import vinaygaykar.CharComparator;
 import vinaygaykar.Dictionary;
+import vinaygaykar.automaton.RegexAutomaton;
 
 
 /**
@@ -15,7 +34,8 @@ import vinaygaykar.Dictionary;
  * The key advantage of a Trie is that it allows for very fast lookups of strings, achieved by storing the
  * strings in a tree structure.
  * <p>
- * This class acts as a guideline for all the child classes on which APIs to expose and nothing else.
+ * This class acts as a guideline for all the child classes on which APIs to expose, and hosts the algorithms which
+ * only need to walk the nodes of a Trie through the {@link Node} accessors.
  * It is encouraged to not rely on this class and instead use {@link java.util.Dictionary} to represent any {@link Trie}
  * implementations.
  *
@@ -26,6 +46,18 @@ import vinaygaykar.Dictionary;
  */
 public abstract class Trie<V> implements Dictionary<V> {
 
+	/**
+	 * Up to this many children are sorted for a custom order without boxing their keys.
+	 */
+	private static final int INSERTION_SORT_MAX = 32;
+
+	/**
+	 * Size under which the keys of a batch reaching the same node are looked up one by one by {@link #getAll}, as
+	 * partitioning them costs more than it saves.
+	 */
+	private static final int SMALL_BATCH = 8;
+
+
 	/**
 	 * Finds the node in the Trie that corresponds to the given key.
 	 * <p>
@@ -38,6 +70,980 @@ public abstract class Trie<V> implements Dictionary<V> {
 	 */
 	protected abstract Optional<? extends Node<V>> find(final String key);
 
+	/**
+	 * Finds the node in the Trie at which the key, given as the characters of a {@link CharSequence} between
+	 * <tt>from</tt> (inclusive) &amp; <tt>to</tt> (exclusive), ends.
+	 * <p>
+	 * Unlike {@link #find(String)} this is the exact lookup backing {@link #get(CharSequence)}, it returns
+	 * <tt>null</tt> instead of an {@link Optional} and does not allocate.
+	 *
+	 * @param key  the key to search for
+	 * @param from index of the first character of the key
+	 * @param to   index after the last character of the key
+	 *
+	 * @return the node at which the key ends, whether terminal or not, or <tt>null</tt> if there is no such node
+	 */
+	protected abstract Node<V> findNode(final CharSequence key, final int from, final int to);
+
+	/**
+	 * Same as {@link #findNode(CharSequence, int, int)} but for a key given as a slice of a {@code char} array.
+	 *
+	 * @param key  the array holding the key to search for
+	 * @param from index of the first character of the key
+	 * @param to   index after the last character of the key
+	 *
+	 * @return the node at which the key ends, whether terminal or not, or <tt>null</tt> if there is no such node
+	 */
+	protected abstract Node<V> findNode(final char[] key, final int from, final int to);
+
+	/**
+	 * Finds the node under which all the keys starting with <tt>prefix</tt> are.
+	 * <p>
+	 * For implementations which store more than one character per node the prefix may end inside the label of the
+	 * found node, in which case the rest of that label is appended to <tt>completion</tt> so that it holds the key of
+	 * the found node.
+	 *
+	 * @param prefix     the prefix to search for
+	 * @param completion if not <tt>null</tt>, the rest of the label of the found node after the prefix is appended
+	 *                   to it
+	 *
+	 * @return the found node, or <tt>null</tt> if no key starts with the prefix
+	 */
+	protected abstract Node<V> findPrefix(final CharSequence prefix, final StringBuilder completion);
+
+	/**
+	 * @return the root node of the Trie, which holds no key
+	 */
+	protected abstract Node<V> getRoot();
+
+	@Override
+	public Optional<V> get(final String key) {
+		return get((CharSequence) key);
+	}
+
+	@Override
+	public Optional<V> get(final CharSequence key) {
+		validateKey(key);
+
+		final Node<V> node = findNode(key, 0, key.length());
+		return node == null ? Optional.empty() : Optional.ofNullable(node.getValue());
+	}
+
+	@Override
+	public Optional<V> get(final char[] key, final int offset, final int length) {
+		validateKey(key, offset, length);
+
+		final Node<V> node = findNode(key, offset, offset + length);
+		return node == null ? Optional.empty() : Optional.ofNullable(node.getValue());
+	}
+
+	@Override
+	public V getOrDefault(final CharSequence key, final V defaultValue) {
+		validateKey(key);
+
+		final Node<V> node = findNode(key, 0, key.length());
+		if (node == null) return defaultValue;
+
+		final V value = node.getValue();
+		return value != null ? value : defaultValue;
+	}
+
+	@Override
+	public V getOrDefault(final char[] key, final int offset, final int length, final V defaultValue) {
+		validateKey(key, offset, length);
+
+		final Node<V> node = findNode(key, offset, offset + length);
+		if (node == null) return defaultValue;
+
+		final V value = node.getValue();
+		return value != null ? value : defaultValue;
+	}
+
+	@Override
+	public boolean containsKey(final CharSequence key) {
+		validateKey(key);
+
+		final Node<V> node = findNode(key, 0, key.length());
+		return node != null && node.isTerminal();
+	}
+
+	/**
+	 * Walks the Trie once for the whole batch: the keys reaching a node are partitioned by their next character, with
+	 * a sort of primitives rather than of strings, and every child is looked up once for all the keys going through
+	 * it. The keys of a group too small to be worth partitioning finish with a plain descent each.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<V> getAll(final Collection<String> keys) {
+		final String[] batch = keys.toArray(new String[0]);
+		final int[] indices = new int[batch.length];
+		for (int i = 0; i < batch.length; ++i) {
+			validateKey(batch[i]);
+			indices[i] = i;
+		}
+
+		final Object[] values = new Object[batch.length];
+		getAll(batch, indices, 0, batch.length, getRoot(), 0, values, new long[batch.length]);
+
+		final List<V> results = new ArrayList<>(batch.length);
+		for (final Object value : values) results.add((V) value);
+		return results;
+	}
+
+	/**
+	 * Looks up the keys of the batch at <tt>indices</tt> between <tt>from</tt> (inclusive) &amp; <tt>to</tt>
+	 * (exclusive), which all start with the <tt>length</tt> characters leading to the node.
+	 *
+	 * @param scratch space to sort the keys by their next character
+	 */
+	private void getAll(final String[] batch,
+						final int[] indices,
+						final int from,
+						final int to,
+						final Node<V> node,
+						final int length,
+						final Object[] values,
+						final long[] scratch) {
+		if (to - from <= SMALL_BATCH) {
+			for (int i = from; i < to; ++i) {
+				final Node<V> found = descend(batch[indices[i]], node, length);
+				if (found != null) values[indices[i]] = found.getValue();
+			}
+			return;
+		}
+
+		// the keys ending at the node are done, the others are sorted by their next character along with their index
+		int count = 0;
+		for (int i = from; i < to; ++i) {
+			final String key = batch[indices[i]];
+			if (key.length() == length) values[indices[i]] = node.getValue();
+			else scratch[count++] = (long) key.charAt(length) << 32 | indices[i];
+		}
+		int differing = 1;
+		while (differing < count && scratch[differing] >>> 32 == scratch[0] >>> 32) differing++;
+		if (differing < count) Arrays.sort(scratch, 0, count);
+		for (int i = 0; i < count; ++i) indices[from + i] = (int) scratch[i];
+
+		for (int start = from, end; start < from + count; start = end) {
+			final char ch = batch[indices[start]].charAt(length);
+			end = start + 1;
+			while (end < from + count && batch[indices[end]].charAt(length) == ch) end++;
+
+			final Node<V> child = node.getChildren().get(ch);
+			if (child == null) continue;
+
+			// only the keys going through the whole label of the child go on
+			final int labelLength = child.getLabelLength();
+			int kept = start;
+			for (int i = start; i < end; ++i) {
+				final String key = batch[indices[i]];
+				if (key.length() < length + 1 + labelLength) continue;
+
+				int matched = 0;
+				while (matched < labelLength && child.getLabelCharAt(matched) == key.charAt(length + 1 + matched))
+					matched++;
+				if (matched == labelLength) indices[kept++] = indices[i];
+			}
+
+			if (kept > start) getAll(batch, indices, start, kept, child, length + 1 + labelLength, values, scratch);
+		}
+	}
+
+	/**
+	 * @return the node at which the key ends, starting from a node the first <tt>length</tt> characters of the key
+	 * lead to, or <tt>null</tt> if there is no such node
+	 */
+	private Node<V> descend(final String key, final Node<V> start, final int length) {
+		Node<V> node = start;
+		int pos = length;
+		while (pos < key.length()) {
+			node = node.getChildren().get(key.charAt(pos));
+			if (node == null) return null;
+
+			final int labelLength = node.getLabelLength();
+			if (pos + 1 + labelLength > key.length()) return null;
+			for (int i = 0; i < labelLength; ++i)
+				if (node.getLabelCharAt(i) != key.charAt(pos + 1 + i)) return null;
+
+			pos += 1 + labelLength;
+		}
+
+		return node;
+	}
+
+	/**
+	 * Inserts the key with the value, in a single descent of the Trie.
+	 *
+	 * @param key          the key to be added
+	 * @param value        the associated value object
+	 * @param onlyIfAbsent if true, an existing value is not replaced
+	 *
+	 * @return the previous value associated with the key, or <tt>null</tt> if the key is new
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key or value is <tt>null</tt>
+	 */
+	protected abstract V putValue(final String key, final V value, final boolean onlyIfAbsent);
+
+	/**
+	 * Locates the node of the key, creating it if absent and <tt>createIfAbsent</tt> is set, and replaces its value
+	 * with the one computed by <tt>remappingFunction</tt> from the current value, all in a single descent of the
+	 * Trie.
+	 * <p>
+	 * The function receives <tt>null</tt> as current value when the key is absent, and the key is removed when the
+	 * function returns <tt>null</tt>.
+	 * Nodes which were created for the key but are not needed in the end, either because the function returned
+	 * <tt>null</tt> or threw, are removed again.
+	 *
+	 * @param key               the key to update
+	 * @param createIfAbsent    whether the path of the key is to be created if absent, when false the function is
+	 *                          not called for absent keys
+	 * @param remappingFunction the function to compute the new value object
+	 *
+	 * @return the new value associated with the key, or <tt>null</tt> if there is none
+	 *
+	 * @throws IllegalArgumentException if the key is empty
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 */
+	protected abstract V update(final String key,
+								final boolean createIfAbsent,
+								final BiFunction<String, ? super V, ? extends V> remappingFunction);
+
+	@Override
+	public Optional<V> putIfAbsent(final String key, final V value) {
+		return Optional.ofNullable(putValue(key, value, true));
+	}
+
+	@Override
+	public Optional<V> computeIfAbsent(final String key, final Function<String, ? extends V> mappingFunction) {
+		Objects.requireNonNull(mappingFunction);
+
+		return Optional.ofNullable(update(key, true,
+				(k, oldValue) -> oldValue != null ? oldValue : mappingFunction.apply(k)));
+	}
+
+	@Override
+	public Optional<V> computeIfPresent(final String key,
+										final BiFunction<String, ? super V, ? extends V> remappingFunction) {
+		Objects.requireNonNull(remappingFunction);
+
+		return Optional.ofNullable(update(key, false,
+				(k, oldValue) -> oldValue != null ? remappingFunction.apply(k, oldValue) : null));
+	}
+
+	@Override
+	public Optional<V> compute(final String key, final BiFunction<String, ? super V, ? extends V> remappingFunction) {
+		Objects.requireNonNull(remappingFunction);
+
+		return Optional.ofNullable(update(key, true, remappingFunction));
+	}
+
+	@Override
+	public Optional<V> merge(final String key,
+							 final V value,
+							 final BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		Objects.requireNonNull(remappingFunction);
+		validateValue(value);
+
+		return Optional.ofNullable(update(key, true,
+				(k, oldValue) -> oldValue != null ? remappingFunction.apply(oldValue, value) : value));
+	}
+
+	@Override
+	public List<String> getKeysWithPrefix(final String prefix,
+										  final Comparator<Character> comparator,
+										  final int count) {
+		validateKey(prefix);
+		Objects.requireNonNull(comparator);
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return with prefix is not a positive number");
+
+		final StringBuilder path = new StringBuilder(prefix);
+		final Node<V> node = findPrefix(prefix, path);
+		if (node == null)
+			return Collections.emptyList();
+
+		final List<String> results = new ArrayList<>((int) Math.min(count, size()));
+		collect(path, node, CharComparator.of(comparator), count, results);
+
+		return results;
+	}
+
+	/**
+	 * Every node keeps the number of keys under it, so this only takes as long as finding the prefix.
+	 */
+	@Override
+	public long countKeysWithPrefix(final String prefix) {
+		validateKey(prefix);
+
+		final Node<V> node = findPrefix(prefix, null);
+		return node == null ? 0L : node.getCountOfKeys();
+	}
+
+	/**
+	 * Descends along the key, adding up the counts of the keys ending at the nodes on the way and of the subtrees
+	 * of the smaller siblings.
+	 */
+	@Override
+	public long rank(final String key) {
+		validateKey(key);
+
+		long rank = 0L;
+		Node<V> node = getRoot();
+		int i = 0;
+		while (i < key.length()) {
+			// the key of the node is a proper prefix of the key, hence smaller
+			if (node.isTerminal()) rank++;
+
+			final char ch = key.charAt(i++);
+			final CharTable<? extends Node<V>> children = node.getChildren();
+			int pos = children.first();
+			for (; pos >= 0 && children.keyAt(pos) < ch; pos = children.next(pos))
+				rank += children.valueAt(pos).getCountOfKeys();
+			if (pos < 0 || children.keyAt(pos) != ch) return rank;
+
+			node = children.valueAt(pos);
+			for (int j = 0; j < node.getLabelLength(); ++j, ++i) {
+				// all the keys under the node are longer than the key, or greater at the first different character
+				if (i == key.length()) return rank;
+
+				final char label = node.getLabelCharAt(j);
+				if (label != key.charAt(i)) return label < key.charAt(i) ? rank + node.getCountOfKeys() : rank;
+			}
+		}
+
+		return rank;
+	}
+
+	/**
+	 * Descends towards the key, skipping whole subtrees by their counts.
+	 */
+	@Override
+	public String select(final long index) {
+		if (index < 0 || index >= size())
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+
+		final StringBuilder key = new StringBuilder();
+		Node<V> node = getRoot();
+		long remaining = index;
+		while (true) {
+			if (node.isTerminal()) {
+				if (remaining == 0) return key.toString();
+				remaining--;
+			}
+
+			final CharTable<? extends Node<V>> children = node.getChildren();
+			for (int pos = children.first(); pos >= 0; pos = children.next(pos)) {
+				final Node<V> child = children.valueAt(pos);
+				if (remaining < child.getCountOfKeys()) {
+					child.appendLabel(key.append(children.keyAt(pos)));
+					node = child;
+					break;
+				}
+				remaining -= child.getCountOfKeys();
+			}
+		}
+	}
+
+	@Override
+	public Optional<String> firstKey() {
+		final KeyIterator<V> keys = new KeyIterator<>(new StringBuilder(), getRoot());
+		return keys.hasNext() ? Optional.of(keys.next()) : Optional.empty();
+	}
+
+	@Override
+	public Optional<String> lastKey() {
+		final Node<V> root = getRoot();
+		if (root.getChildren().isEmpty()) return Optional.empty();
+
+		return Optional.of(appendLastKey(new StringBuilder(), root).toString());
+	}
+
+	/**
+	 * Descends along the key, remembering the last place where a smaller key branches off: a terminal node whose key
+	 * is a prefix of the key, or a smaller sibling whose greatest key is then the answer.
+	 */
+	@Override
+	public Optional<String> floorKey(final String key) {
+		validateKey(key);
+
+		final StringBuilder path = new StringBuilder();
+		// the floor is the key of the node at `floorLength` of the path or, if `floorChild` is set, the greatest key
+		// under that child of it
+		int floorLength = -1;
+		char floorKey = 0;
+		Node<V> floorChild = null;
+
+		Node<V> node = getRoot();
+		int i = 0;
+		while (true) {
+			if (i == key.length()) {
+				if (node.isTerminal()) return Optional.of(key);
+				break;
+			}
+
+			if (node.isTerminal()) {
+				floorLength = path.length();
+				floorChild = null;
+			}
+
+			final char ch = key.charAt(i++);
+			final CharTable<? extends Node<V>> children = node.getChildren();
+			int smaller = -1;
+			int pos = children.first();
+			for (; pos >= 0 && children.keyAt(pos) < ch; pos = children.next(pos)) smaller = pos;
+			if (smaller >= 0) {
+				floorLength = path.length();
+				floorKey = children.keyAt(smaller);
+				floorChild = children.valueAt(smaller);
+			}
+			if (pos < 0 || children.keyAt(pos) != ch) break;
+
+			final Node<V> child = children.valueAt(pos);
+			final int length = child.getLabelLength();
+			int j = 0;
+			for (; j < length && i < key.length() && child.getLabelCharAt(j) == key.charAt(i); ++j) ++i;
+			if (j < length) {
+				// the keys under the child are all smaller than the key if their label is, else all greater
+				if (i < key.length() && child.getLabelCharAt(j) < key.charAt(i)) {
+					floorLength = path.length();
+					floorKey = ch;
+					floorChild = child;
+				}
+				break;
+			}
+
+			child.appendLabel(path.append(ch));
+			node = child;
+		}
+
+		if (floorLength < 0) return Optional.empty();
+
+		path.setLength(floorLength);
+		if (floorChild != null) {
+			floorChild.appendLabel(path.append(floorKey));
+			appendLastKey(path, floorChild);
+		}
+		return Optional.of(path.toString());
+	}
+
+	/**
+	 * Seeks to the key once and returns the key the iteration continues with.
+	 */
+	@Override
+	public Optional<String> ceilingKey(final String key) {
+		validateKey(key);
+
+		final KeyIterator<V> keys = new KeyIterator<>(new StringBuilder(), getRoot());
+		keys.seek(key, true);
+		return keys.hasNext() ? Optional.of(keys.next()) : Optional.empty();
+	}
+
+	/**
+	 * The returned stream is lazy, it seeks to <tt>fromKey</tt> once and stops at the first key not less than
+	 * <tt>toKey</tt>.
+	 */
+	@Override
+	public Stream<String> keysBetween(final String fromKey, final String toKey) {
+		validateKey(fromKey);
+		validateKey(toKey);
+		if (fromKey.compareTo(toKey) > 0)
+			throw new IllegalArgumentException("fromKey > toKey");
+
+		final KeyIterator<V> keys = new KeyIterator<>(new StringBuilder(), getRoot());
+		keys.seek(fromKey, true);
+		keys.limit(toKey);
+
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(keys,
+				Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Walks the input down the Trie once, instead of looking up every prefix of it from the root.
+	 */
+	@Override
+	public Optional<String> longestPrefixOf(final CharSequence input) {
+		validateKey(input);
+
+		final int length = matchPrefixes(input, null);
+		return length == 0 ? Optional.empty() : Optional.of(input.subSequence(0, length).toString());
+	}
+
+	/**
+	 * Walks the input down the Trie once, instead of looking up every prefix of it from the root.
+	 */
+	@Override
+	public List<String> prefixesOf(final CharSequence input) {
+		validateKey(input);
+
+		final List<String> prefixes = new ArrayList<>();
+		matchPrefixes(input, prefixes);
+		return prefixes;
+	}
+
+	/**
+	 * Descends along the input for as long as it matches, characters of compressed parts of nodes included, adding
+	 * the key of every terminal node on the way to the list, if any.
+	 *
+	 * @return the length of the longest key which is a prefix of the input, 0 if there is none
+	 */
+	private int matchPrefixes(final CharSequence input, final List<String> prefixes) {
+		int longest = 0;
+		Node<V> node = getRoot();
+		int i = 0;
+		while (i < input.length()) {
+			final Node<V> child = node.getChildren().get(input.charAt(i++));
+			if (child == null) break;
+
+			final int length = child.getLabelLength();
+			if (input.length() - i < length) break;
+			int j = 0;
+			while (j < length && child.getLabelCharAt(j) == input.charAt(i)) {
+				++j;
+				++i;
+			}
+			if (j < length) break;
+
+			if (child.isTerminal()) {
+				longest = i;
+				if (prefixes != null) prefixes.add(input.subSequence(0, i).toString());
+			}
+			node = child;
+		}
+
+		return longest;
+	}
+
+	/**
+	 * Walks the Trie depth first, computing one row of the edit distance table of the term per character of the path,
+	 * so that the row of a node is shared by all the keys under it. A subtree is pruned as soon as all the distances
+	 * of a row exceed the number of edits, as they only grow further down.
+	 * <p>
+	 * The walk is repeated for every number of edits from 0 up to <tt>maxEdits</tt>, collecting the keys at exactly
+	 * that distance, so that the closest keys come first and the walk stops as soon as <tt>limit</tt> keys are found,
+	 * before the wider and costlier walks.
+	 */
+	@Override
+	public List<String> fuzzySearch(final String term, final int maxEdits, final int limit) {
+		validateKey(term);
+		if (maxEdits < 0)
+			throw new IllegalArgumentException("Maximum number of edits is negative");
+		if (limit < 1)
+			throw new IllegalArgumentException("Count of values to return is not a positive number");
+
+		// no path longer than the term by more than the edits can be within the edits
+		final int[][] rows = new int[term.length() + maxEdits + 2][term.length() + 1];
+		for (int j = 0; j <= term.length(); ++j) rows[0][j] = j;
+
+		final List<String> results = new ArrayList<>();
+		final StringBuilder path = new StringBuilder();
+		for (int edits = 0; edits <= maxEdits; ++edits)
+			if (!fuzzySearch(path, getRoot(), term, rows, edits, limit, results)) break;
+
+		return results;
+	}
+
+	/**
+	 * @param rows the rows of the edit distance table, one for every character of the path
+	 *
+	 * @return false if enough keys were collected and the walk is to stop
+	 */
+	private boolean fuzzySearch(final StringBuilder path,
+								final Node<V> node,
+								final String term,
+								final int[][] rows,
+								final int edits,
+								final int limit,
+								final List<String> results) {
+		final CharTable<? extends Node<V>> children = node.getChildren();
+		for (int pos = children.first(); pos >= 0; pos = children.next(pos)) {
+			final Node<V> child = children.valueAt(pos);
+			final int length = path.length();
+
+			final char key = children.keyAt(pos);
+			boolean within = nextRow(rows, path.append(key).length(), term, key) <= edits;
+			for (int i = 0; within && i < child.getLabelLength(); ++i) {
+				final char ch = child.getLabelCharAt(i);
+				within = nextRow(rows, path.append(ch).length(), term, ch) <= edits;
+			}
+
+			boolean more = true;
+			if (within) {
+				if (child.isTerminal() && rows[path.length()][term.length()] == edits) {
+					results.add(path.toString());
+					more = results.size() < limit;
+				}
+				if (more) more = fuzzySearch(path, child, term, rows, edits, limit, results);
+			}
+			path.setLength(length);
+			if (!more) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Computes the row of the edit distance table for the path extended by a character, from the row of the path.
+	 *
+	 * @param depth the length of the extended path
+	 *
+	 * @return the smallest distance of the row
+	 */
+	private static int nextRow(final int[][] rows, final int depth, final String term, final char ch) {
+		final int[] previous = rows[depth - 1];
+		final int[] row = rows[depth];
+		row[0] = depth;
+
+		int min = depth;
+		for (int j = 1; j <= term.length(); ++j) {
+			final int cost = term.charAt(j - 1) == ch ? 0 : 1;
+			row[j] = Math.min(Math.min(previous[j], row[j - 1]) + 1, previous[j - 1] + cost);
+			min = Math.min(min, row[j]);
+		}
+
+		return min;
+	}
+
+	/**
+	 * Walks the Trie guided by the pattern, stepping a {@link WildcardMatcher} one character at a time through the
+	 * compressed parts of nodes too. Where the pattern allows a single character the child is looked up directly,
+	 * children are only enumerated at wildcards, and subtrees which cannot match are pruned.
+	 */
+	@Override
+	public List<String> getKeysMatching(final String pattern, final int count) {
+		validateKey(pattern);
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return is not a positive number");
+
+		final List<String> results = new ArrayList<>();
+		match(new StringBuilder(), getRoot(), new WildcardMatcher(pattern), count, results);
+		return results;
+	}
+
+	/**
+	 * Walks the Trie in lockstep with the automaton of the expression, pruning a subtree as soon as the automaton
+	 * reaches its dead state; where the expression allows a single character, the child is looked up directly.
+	 */
+	@Override
+	public List<String> getKeysMatchingRegex(final String regex, final int count) {
+		validateKey(regex);
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return is not a positive number");
+
+		final List<String> results = new ArrayList<>();
+		match(new StringBuilder(), getRoot(), new RegexMatcher(RegexAutomaton.compile(regex)), count, results);
+		return results;
+	}
+
+	/**
+	 * @return false if enough keys were collected and the walk is to stop
+	 */
+	private boolean match(final StringBuilder path,
+						  final Node<V> node,
+						  final PathMatcher matcher,
+						  final int count,
+						  final List<String> results) {
+		final CharTable<? extends Node<V>> children = node.getChildren();
+		final int literal = matcher.literal(path.length());
+		if (literal == PathMatcher.NONE) return true;
+
+		if (literal != PathMatcher.ANY) {
+			final Node<V> child = children.get((char) literal);
+			return child == null || matchChild(path, (char) literal, child, matcher, count, results);
+		}
+
+		for (int pos = children.first(); pos >= 0; pos = children.next(pos))
+			if (!matchChild(path, children.keyAt(pos), children.valueAt(pos), matcher, count, results))
+				return false;
+
+		return true;
+	}
+
+	private boolean matchChild(final StringBuilder path,
+							   final char key,
+							   final Node<V> child,
+							   final PathMatcher matcher,
+							   final int count,
+							   final List<String> results) {
+		final int length = path.length();
+		boolean alive = matcher.step(path.append(key).length(), key);
+		for (int i = 0; alive && i < child.getLabelLength(); ++i) {
+			final char ch = child.getLabelCharAt(i);
+			alive = matcher.step(path.append(ch).length(), ch);
+		}
+
+		boolean more = true;
+		if (alive) {
+			if (child.isTerminal() && matcher.accepts(path.length())) {
+				results.add(path.toString());
+				more = results.size() < count;
+			}
+			if (more) more = match(path, child, matcher, count, results);
+		}
+		path.setLength(length);
+
+		return more;
+	}
+
+	/**
+	 * Appends the rest of the greatest key under the node by following the last child down to a leaf, as a longer
+	 * key is greater than its prefix.
+	 *
+	 * @return the builder
+	 */
+	private StringBuilder appendLastKey(final StringBuilder key, final Node<V> node) {
+		Node<V> current = node;
+		while (!current.getChildren().isEmpty()) {
+			final CharTable<? extends Node<V>> children = current.getChildren();
+			final int pos = children.last();
+			current = children.valueAt(pos);
+			current.appendLabel(key.append(children.keyAt(pos)));
+		}
+
+		return key;
+	}
+
+	@Override
+	public Iterator<String> keysWithPrefixIterator(final String prefix) {
+		validateKey(prefix);
+
+		final StringBuilder path = new StringBuilder(prefix);
+		final Node<V> node = findPrefix(prefix, path);
+		return node == null ? Collections.emptyIterator() : new KeyIterator<>(path, node);
+	}
+
+	/**
+	 * The returned stream splits at the children of the nodes under the prefix, hence it can be made parallel.
+	 */
+	@Override
+	public Stream<String> keysWithPrefix(final String prefix) {
+		validateKey(prefix);
+
+		final StringBuilder path = new StringBuilder(prefix);
+		final Node<V> node = findPrefix(prefix, path);
+		return node == null ? Stream.empty() : StreamSupport.stream(new KeySpliterator<>(path, node), false);
+	}
+
+	@Override
+	public Stream<String> keys() {
+		return StreamSupport.stream(new KeySpliterator<>(new StringBuilder(), getRoot()), false);
+	}
+
+	@Override
+	public Stream<Map.Entry<String, V>> entriesWithPrefix(final String prefix) {
+		validateKey(prefix);
+
+		final StringBuilder path = new StringBuilder(prefix);
+		final Node<V> node = findPrefix(prefix, path);
+		if (node == null) return Stream.empty();
+
+		final KeyIterator<V> keys = new KeyIterator<>(path, node);
+		final Iterator<Map.Entry<String, V>> entries = new Iterator<Map.Entry<String, V>>() {
+			@Override
+			public boolean hasNext() {
+				return keys.hasNext();
+			}
+
+			@Override
+			public Map.Entry<String, V> next() {
+				final String key = keys.next();
+				return new AbstractMap.SimpleImmutableEntry<>(key, keys.node().getValue());
+			}
+		};
+
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(entries,
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Walks the nodes under the given prefix in depth first order, passing the path &amp; value of every node to the
+	 * visitor, which decides whether to descend into, skip or stop at every node.
+	 * <p>
+	 * The first node visited is the one under which all the keys with the prefix are, its path may be longer than
+	 * the prefix. Apart from the path buffer, which grows with the longest visited key, nothing is allocated per
+	 * node.
+	 *
+	 * @param prefix  the prefix to search for
+	 * @param visitor the visitor to call for every node
+	 *
+	 * @throws IllegalArgumentException if the prefix is empty
+	 * @throws NullPointerException     if the prefix or visitor is <tt>null</tt>
+	 * @see TrieVisitor
+	 */
+	public void visit(final String prefix, final TrieVisitor<? super V> visitor) {
+		validateKey(prefix);
+		Objects.requireNonNull(visitor);
+
+		final StringBuilder path = new StringBuilder(prefix);
+		final Node<V> node = findPrefix(prefix, path);
+		if (node != null && visitor.visit(path, node.getValue()) == TrieVisitor.Action.CONTINUE)
+			walk(path, node, visitor);
+	}
+
+	/**
+	 * Walks all the nodes of the Trie, except the root, in depth first order.
+	 *
+	 * @param visitor the visitor to call for every node
+	 *
+	 * @throws NullPointerException if the visitor is <tt>null</tt>
+	 * @see #visit(String, TrieVisitor)
+	 */
+	public void visit(final TrieVisitor<? super V> visitor) {
+		Objects.requireNonNull(visitor);
+
+		walk(new StringBuilder(), getRoot(), visitor);
+	}
+
+	/**
+	 * Iterates all the keys from the root once, instead of selecting every key by its index.
+	 */
+	@Override
+	public void forEach(final BiConsumer<? super String, ? super V> action) {
+		Objects.requireNonNull(action);
+
+		final KeyIterator<V> keys = new KeyIterator<>(new StringBuilder(), getRoot());
+		while (keys.hasNext()) {
+			final String key = keys.next();
+			action.accept(key, keys.node().getValue());
+		}
+	}
+
+	/**
+	 * Creates a cursor at the root of the Trie, for autocompletion as the prefix is typed one character at a time.
+	 *
+	 * @return a new cursor with an empty prefix
+	 *
+	 * @see TrieCursor
+	 */
+	public TrieCursor<V> cursor() {
+		return new TrieCursor<>(getRoot());
+	}
+
+	private void walk(final StringBuilder path, final Node<V> node, final TrieVisitor<? super V> visitor) {
+		final KeyIterator<V> nodes = new KeyIterator<>(path, node);
+		while (nodes.advanceNode()) {
+			switch (visitor.visit(path, nodes.node().getValue())) {
+				case TERMINATE:
+					return;
+				case SKIP_SUBTREE:
+					nodes.skipSubtree();
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Seeks directly to the successor of <tt>afterKey</tt> under the prefix, descending along it once, instead of
+	 * iterating the keys before it.
+	 */
+	@Override
+	public List<String> getKeysWithPrefix(final String prefix, final String afterKey, final int count) {
+		validateKey(prefix);
+		Objects.requireNonNull(afterKey);
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return with prefix is not a positive number");
+
+		final StringBuilder path = new StringBuilder(prefix);
+		final Node<V> node = findPrefix(prefix, path);
+		if (node == null)
+			return Collections.emptyList();
+
+		final KeyIterator<V> keys = new KeyIterator<>(path, node);
+		keys.seek(afterKey, false);
+
+		final List<String> results = new ArrayList<>((int) Math.min(count, node.getCountOfKeys()));
+		while (results.size() < count && keys.hasNext())
+			results.add(keys.next());
+
+		return results;
+	}
+
+	/**
+	 * Collects the keys under the node in depth first order, visiting children in the order of the comparator.
+	 * Children are kept in natural order by the nodes, so for the natural &amp; reverse order no sorting is needed.
+	 *
+	 * @param path       the key of the node, restored to it before returning
+	 * @param node       the node to collect the keys under
+	 * @param comparator the order in which children are visited
+	 * @param count      the maximum number of keys to collect
+	 * @param results    the list to add the keys to
+	 *
+	 * @return false if <tt>count</tt> keys have been collected and the traversal is to stop
+	 */
+	private boolean collect(final StringBuilder path,
+							final Node<V> node,
+							final CharComparator comparator,
+							final int count,
+							final List<String> results) {
+		if (node.isTerminal()) {
+			results.add(path.toString());
+			if (results.size() >= count) return false;
+		}
+
+		final CharTable<? extends Node<V>> children = node.getChildren();
+		if (children.isEmpty()) return true;
+
+		if (comparator == CharComparator.naturalOrder()) {
+			for (int pos = children.first(); pos >= 0; pos = children.next(pos))
+				if (!collectChild(path, children.keyAt(pos), children.valueAt(pos), comparator, count, results))
+					return false;
+		} else if (comparator == CharComparator.reverseOrder()) {
+			for (int pos = children.last(); pos >= 0; pos = children.prev(pos))
+				if (!collectChild(path, children.keyAt(pos), children.valueAt(pos), comparator, count, results))
+					return false;
+		} else {
+			final char[] keys = sortedKeys(children, comparator);
+			for (final char key : keys)
+				if (!collectChild(path, key, children.get(key), comparator, count, results))
+					return false;
+		}
+
+		return true;
+	}
+
+	private boolean collectChild(final StringBuilder path,
+								 final char key,
+								 final Node<V> child,
+								 final CharComparator comparator,
+								 final int count,
+								 final List<String> results) {
+		final int length = path.length();
+		child.appendLabel(path.append(key));
+		final boolean more = collect(path, child, comparator, count, results);
+		path.setLength(length);
+
+		return more;
+	}
+
+	/**
+	 * @return the keys of the table sorted by the comparator
+	 */
+	private static char[] sortedKeys(final CharTable<?> children, final CharComparator comparator) {
+		final char[] keys = new char[children.size()];
+		int size = 0;
+		for (int pos = children.first(); pos >= 0; pos = children.next(pos))
+			keys[size++] = children.keyAt(pos);
+
+		if (size <= INSERTION_SORT_MAX) {
+			for (int i = 1; i < size; ++i) {
+				final char key = keys[i];
+				int j = i - 1;
+				for (; j >= 0 && comparator.compareChars(keys[j], key) > 0; --j)
+					keys[j + 1] = keys[j];
+				keys[j + 1] = key;
+			}
+		} else {
+			final Character[] boxed = new Character[size];
+			for (int i = 0; i < size; ++i) boxed[i] = keys[i];
+			Arrays.sort(boxed, comparator);
+			for (int i = 0; i < size; ++i) keys[i] = boxed[i];
+		}
+
+		return keys;
+	}
+
 	/**
 	 * Returns the total number of nodes in the Trie.
 	 *
@@ -61,6 +1067,40 @@ public abstract class Trie<V> implements Dictionary<V> {
 		 */
 		public abstract boolean isTerminal();
 
+		/**
+		 * @return the children of this node, kept in natural order of their keys
+		 */
+		protected abstract CharTable<? extends Node<V>> getChildren();
+
+		/**
+		 * @return number of keys ending at this node or under it
+		 */
+		protected abstract long getCountOfKeys();
+
+		/**
+		 * @return number of characters this node holds after the key under which it is stored in its parent
+		 */
+		protected int getLabelLength() {
+			return 0;
+		}
+
+		/**
+		 * @param index index of the character, less than {@link #getLabelLength()}
+		 *
+		 * @return a character this node holds after the key under which it is stored in its parent
+		 */
+		protected char getLabelCharAt(final int index) {
+			throw new IndexOutOfBoundsException("Node holds no label");
+		}
+
+		/**
+		 * Appends the characters this node holds after the key under which it is stored in its parent, if any.
+		 *
+		 * @param sb the builder to append to
+		 */
+		protected void appendLabel(final StringBuilder sb) {
+		}
+
 	}
 
 }
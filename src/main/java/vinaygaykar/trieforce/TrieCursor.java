@@ -0,0 +1,190 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+
+/**
+ * A stateful position inside a {@link Trie}, moved one character at a time, for typeahead where every keystroke
+ * extends or shortens the prefix of the previous one.
+ * <p>
+ * Instead of looking up the whole prefix again from the root for every keystroke, the cursor remembers the node it
+ * is at, and how many characters of the label of that node were matched, for every typed character. Typing a
+ * character then costs a single step down the Trie and deleting one costs nothing.
+ * <p>
+ * Characters typed after the prefix stopped matching any key are remembered too, so that deleting them brings the
+ * cursor back to where it matched.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * 		final TrieCursor<Integer> cursor = trie.cursor();
+ * 		cursor.advance('h');
+ * 		cursor.advance('e');
+ * 		final List<String> completions = cursor.completions(10); // keys starting with "he"
+ * 		cursor.retreat();
+ * }</pre>
+ * <p>
+ * The Trie must not be modified while a cursor is in use, the outcome of doing so is undefined.
+ *
+ * @param <V> the type of the values that are stored
+ *
+ * @author Vinay Gaykar
+ * @see Trie#cursor()
+ */
+public final class TrieCursor<V> {
+
+	private final StringBuilder typed;
+
+	/**
+	 * Node at which the cursor is after every matching typed character, the root at index 0.
+	 */
+	private Trie.Node<V>[] nodes;
+
+	/**
+	 * Number of characters of the label of the node matched, for every entry of {@link #nodes}.
+	 */
+	private int[] matched;
+
+	/**
+	 * Number of typed characters after the prefix stopped matching.
+	 */
+	private int mismatched;
+
+
+	@SuppressWarnings("unchecked")
+	TrieCursor(final Trie.Node<V> root) {
+		this.typed = new StringBuilder();
+		this.nodes = (Trie.Node<V>[]) new Trie.Node<?>[16];
+		this.matched = new int[16];
+		this.nodes[0] = root;
+		this.mismatched = 0;
+	}
+
+	/**
+	 * Types a character at the end of the prefix.
+	 *
+	 * @param ch the typed character
+	 *
+	 * @return true if some key starts with the prefix
+	 */
+	public boolean advance(final char ch) {
+		typed.append(ch);
+		if (mismatched > 0) {
+			mismatched++;
+			return false;
+		}
+
+		final int depth = typed.length() - 1;
+		final Trie.Node<V> node = nodes[depth];
+		final int count = matched[depth];
+
+		final Trie.Node<V> next;
+		final int nextCount;
+		if (count < node.getLabelLength()) {
+			next = node.getLabelCharAt(count) == ch ? node : null;
+			nextCount = count + 1;
+		} else {
+			next = node.getChildren().get(ch);
+			nextCount = 0;
+		}
+
+		if (next == null) {
+			mismatched++;
+			return false;
+		}
+
+		if (depth + 1 == nodes.length) {
+			nodes = Arrays.copyOf(nodes, nodes.length * 2);
+			matched = Arrays.copyOf(matched, matched.length * 2);
+		}
+		nodes[depth + 1] = next;
+		matched[depth + 1] = nextCount;
+		return true;
+	}
+
+	/**
+	 * Deletes the last character of the prefix.
+	 *
+	 * @return false if the prefix was already empty
+	 */
+	public boolean retreat() {
+		if (typed.length() == 0) return false;
+
+		typed.setLength(typed.length() - 1);
+		if (mismatched > 0) mismatched--;
+		else nodes[typed.length() + 1] = null;
+
+		return true;
+	}
+
+	/**
+	 * Deletes the whole prefix.
+	 */
+	public void reset() {
+		Arrays.fill(nodes, 1, nodes.length, null);
+		typed.setLength(0);
+		mismatched = 0;
+	}
+
+	/**
+	 * @return the typed prefix
+	 */
+	public String prefix() {
+		return typed.toString();
+	}
+
+	/**
+	 * @return true if some key starts with the prefix, always true for an empty prefix
+	 */
+	public boolean matches() {
+		return mismatched == 0;
+	}
+
+	/**
+	 * Retrieves the value associated with the prefix, if it is a key.
+	 *
+	 * @return an {@link Optional} object containing the value object, or {@link Optional#empty()} if the prefix is
+	 * not a key
+	 */
+	public Optional<V> get() {
+		if (mismatched > 0) return Optional.empty();
+
+		final Trie.Node<V> node = nodes[typed.length()];
+		final boolean atNode = matched[typed.length()] == node.getLabelLength();
+		return atNode && typed.length() > 0 ? Optional.ofNullable(node.getValue()) : Optional.empty();
+	}
+
+	/**
+	 * Returns the keys that start with the prefix, in lexicographical order, starting from the position of the
+	 * cursor instead of the root.
+	 *
+	 * @param count the maximum number of keys to return
+	 *
+	 * @return a {@link List} of keys that start with the prefix, up to a maximum of <tt>count</tt>
+	 *
+	 * @throws IllegalArgumentException if count is not positive
+	 */
+	public List<String> completions(final int count) {
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return with prefix is not a positive number");
+		if (mismatched > 0)
+			return Collections.emptyList();
+
+		final Trie.Node<V> node = nodes[typed.length()];
+		final StringBuilder path = new StringBuilder(typed);
+		for (int i = matched[typed.length()]; i < node.getLabelLength(); ++i)
+			path.append(node.getLabelCharAt(i));
+
+		final List<String> results = new ArrayList<>((int) Math.min(count, node.getCountOfKeys()));
+		final KeyIterator<V> keys = new KeyIterator<>(path, node);
+		while (results.size() < count && keys.hasNext())
+			results.add(keys.next());
+
+		return results;
+	}
+
+}
@@ -0,0 +1,65 @@
+package vinaygaykar.trieforce;
+
+
+/**
+ * A callback for walking the nodes of a {@link Trie} with {@link Trie#visit(String, TrieVisitor)}, without building
+ * a {@link String} for every key.
+ * <p>
+ * Nodes are visited in depth first, lexicographical, order. Every node is visited, not only the ones at which a key
+ * ends, so that whole subtrees can be pruned by their path; which intermediate paths exist depends on the
+ * implementation, e.g. a {@link vinaygaykar.trieforce.compressed.CompressedTrie} has no node for most of them.
+ * <p>
+ * Usage, summing the values of all keys starting with "acc" but not with "acce":
+ * <pre>{@code
+ * 		final long[] sum = { 0 };
+ * 		trie.visit("acc", (path, value) -> {
+ * 			if (path.length() >= 4 && path.charAt(3) == 'e') return TrieVisitor.Action.SKIP_SUBTREE;
+ * 			if (value != null) sum[0] += value;
+ * 			return TrieVisitor.Action.CONTINUE;
+ * 		});
+ * }</pre>
+ *
+ * @param <V> the type of the values that are stored
+ *
+ * @author Vinay Gaykar
+ */
+@FunctionalInterface
+public interface TrieVisitor<V> {
+
+	/**
+	 * Visits a node.
+	 * <p>
+	 * The path is a buffer reused for all the nodes, it is only valid during the call and must not be kept; use
+	 * {@link CharSequence#toString()} to keep a copy.
+	 *
+	 * @param path  the key of the node
+	 * @param value the value of the node, or <tt>null</tt> if no key ends at the node
+	 *
+	 * @return how to continue the walk, must not be <tt>null</tt>
+	 */
+	Action visit(final CharSequence path, final V value);
+
+
+	/**
+	 * What to do after visiting a node.
+	 */
+	enum Action {
+
+		/**
+		 * Continue with the nodes under the visited node.
+		 */
+		CONTINUE,
+
+		/**
+		 * Skip the nodes under the visited node and continue with its next sibling.
+		 */
+		SKIP_SUBTREE,
+
+		/**
+		 * Stop the walk.
+		 */
+		TERMINATE
+
+	}
+
+}
@@ -0,0 +1,113 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.Arrays;
+
+
+/**
+ * Matches a path of a {@link Trie}, one character at a time, against a pattern where <tt>?</tt> matches any single
+ * character and <tt>*</tt> matches any run of characters, possibly empty.
+ * <p>
+ * The pattern is run as a nondeterministic automaton whose states are the positions in the pattern, state <tt>i</tt>
+ * meaning that the path so far matches the first <tt>i</tt> characters of the pattern. The set of states reached is
+ * kept for every length of the path, as a bit set, so that a walk of the Trie can step a character down and come
+ * back up for free; a subtree is pruned as soon as the set is empty.
+ * Unlike backtracking, every key is reached once whatever the number of <tt>*</tt>, and no key is matched twice.
+ *
+ * @author Vinay Gaykar
+ */
+final class WildcardMatcher implements PathMatcher {
+
+	private final String pattern;
+
+	private final int words;
+
+	/**
+	 * Set of states reached for every length of the path, grown as the path gets longer.
+	 */
+	private long[][] states;
+
+
+	WildcardMatcher(final String pattern) {
+		this.pattern = pattern;
+		this.words = (pattern.length() >>> 6) + 1;
+		this.states = new long[pattern.length() + 1][words];
+
+		add(states[0], 0);
+	}
+
+	@Override
+	public boolean step(final int length, final char ch) {
+		if (length == states.length) {
+			states = Arrays.copyOf(states, length * 2);
+			for (int i = length; i < states.length; ++i) states[i] = new long[words];
+		}
+
+		final long[] from = states[length - 1];
+		final long[] to = states[length];
+		Arrays.fill(to, 0L);
+
+		boolean alive = false;
+		for (int state = next(from, 0); state >= 0; state = next(from, state + 1)) {
+			if (state == pattern.length()) continue;
+
+			final char p = pattern.charAt(state);
+			if (p == '*') add(to, state);
+			else if (p == '?' || p == ch) add(to, state + 1);
+			else continue;
+
+			alive = true;
+		}
+
+		return alive;
+	}
+
+	@Override
+	public boolean accepts(final int length) {
+		return (states[length][pattern.length() >>> 6] & 1L << pattern.length()) != 0;
+	}
+
+	@Override
+	public int literal(final int length) {
+		final long[] current = states[length];
+		int literal = NONE;
+		for (int state = next(current, 0); state >= 0; state = next(current, state + 1)) {
+			if (state == pattern.length()) continue;
+
+			final char p = pattern.charAt(state);
+			if (p == '*' || p == '?' || literal != NONE && literal != p) return ANY;
+			literal = p;
+		}
+
+		return literal;
+	}
+
+	/**
+	 * Adds the state to the set, along with the states after the <tt>*</tt> at it, as they match the empty run.
+	 */
+	private void add(final long[] set, final int state) {
+		int current = state;
+		set[current >>> 6] |= 1L << current;
+		while (current < pattern.length() && pattern.charAt(current) == '*') {
+			current++;
+			set[current >>> 6] |= 1L << current;
+		}
+	}
+
+	/**
+	 * @return the first state of the set not before <tt>from</tt>, or -1 if there is none
+	 */
+	private int next(final long[] set, final int from) {
+		int index = from >>> 6;
+		if (index >= words) return -1;
+
+		long word = set[index] & -1L << from;
+		while (word == 0) {
+			if (++index == words) return -1;
+			word = set[index];
+		}
+
+		return (index << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+}
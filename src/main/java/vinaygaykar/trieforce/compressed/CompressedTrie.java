@@ -1,14 +1,20 @@
 package vinaygaykar.trieforce.compressed;
 
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
 
+import vinaygaykar.trieforce.CharTable;
 import vinaygaykar.trieforce.Trie;
 
 
@@ -58,6 +64,12 @@ import vinaygaykar.trieforce.Trie;
  *     ├── G
  *     └── H
  * </pre>
+ * <p>
+ * Children of a node are kept in a {@link CharTable} whose layout adapts to the fanout of the node, so that the many
+ * nodes with one or two children produced by path compression stay small, while the few nodes with a high fanout
+ * are addressed directly.
+ * The compressed part of every node is not stored in the node itself but as a reference into a {@link LabelSlab}
+ * shared by the whole trie, which is compacted once most of it is no longer referenced.
  *
  * @param <V> the type of the values that are stored
  *
@@ -68,164 +80,285 @@ import vinaygaykar.trieforce.Trie;
  */
 public class CompressedTrie<V> extends Trie<V> {
 
+	/**
+	 * Minimum number of characters in the label slab before it is considered for compaction.
+	 */
+	private static final int COMPACTION_THRESHOLD = 1024;
+
+	/**
+	 * Ranges of at most this many entries are built into a single subtrie by a parallel build.
+	 */
+	private static final int MIN_PARTITION_SIZE = 4096;
+
+
+	private final LabelSlab labels;
+
 	private final Node<V> root;
 
 	private long words;
 
 	private long nodes;
 
+	/**
+	 * Number of characters of the label slab which are referenced by a node, the rest is garbage.
+	 */
+	private long labelChars;
+
 
 	public CompressedTrie() {
-		this.root = new Node<>();
+		this.labels = new LabelSlab();
+		this.root = newNode(labels);
 		this.words = 0L;
 		this.nodes = 1L; // root is always there
+		this.labelChars = 0L;
 	}
 
 	@Override
 	public Optional<V> put(final String key, final V value) {
+		return Optional.ofNullable(putAndGetPrevious(key, value));
+	}
+
+	@Override
+	public V putAndGetPrevious(final String key, final V value) {
+		return putValue(key, value, false);
+	}
+
+	@Override
+	protected V putValue(final String key, final V value, final boolean onlyIfAbsent) {
 		validateKey(key);
 		validateValue(value);
 
+		// counts are incremented on the way down assuming the key is new, and restored if it is not
 		Node<V> current = root;
 		for (int i = 0; i < key.length(); ++i) {
 			final char ch = key.charAt(i);
 			final Node<V> next = current.children.get(ch);
+			current.count++;
 
 			if (next == null) {
-				final Node<V> node = new Node<>();
+				final Node<V> node = newNode(labels);
 				nodes++;
-				node.prefix.append(key.substring(i + 1));
+				reserveLabel(key.length() - i - 1);
+				node.offset = labels.append(key, i + 1, key.length());
+				node.length = key.length() - i - 1;
+				labelChars += node.length;
 
 				current.children.put(ch, node);
 				current = node;
 				break;
-			} else if (next.prefix.length() == 0) {
-				current = next;
-				continue;
 			}
 
-			final int len = (i < key.length() - 1)
-							? getCommonPrefixLength(next.prefix, key.substring(i + 1))
-							: 0;
-
-			if (len == 0) {
-				splitNode(next, len);
-				current = next;
-			} else if (next.prefix.length() == len) {
-				i += len;
-				current = next;
-			} else if (next.prefix.length() > len) {
-				splitNode(next, len);
-				i += len;
-				current = next;
-			}
+			final int len = getCommonPrefixLength(next, key, i + 1);
+			if (len < next.length) splitNode(next, len);
+
+			i += len;
+			current = next;
 		}
 
-		words++;
-		if (current.value == null) {
+		final V previous = current.value;
+		if (previous == null) {
 			current.value = value;
-			return Optional.empty();
-		} else return Optional.of(current.value);
+			current.count++;
+			words++;
+		} else {
+			if (!onlyIfAbsent) current.value = value;
+
+			Node<V> node = root;
+			for (int i = 0; node != current; i += 1 + node.length) {
+				node.count--;
+				node = node.children.get(key.charAt(i));
+			}
+		}
+
+		return previous;
+	}
+
+	@Override
+	protected V update(final String key,
+					   final boolean createIfAbsent,
+					   final BiFunction<String, ? super V, ? extends V> remappingFunction) {
+		validateKey(key);
+
+		final long before = words;
+		try {
+			return update(root, key, 0, createIfAbsent, remappingFunction);
+		} finally {
+			root.count += words - before;
+		}
+	}
+
+	private V update(final Node<V> current,
+					 final String key,
+					 final int pos,
+					 final boolean createIfAbsent,
+					 final BiFunction<String, ? super V, ? extends V> remappingFunction) {
+		if (pos == key.length()) {
+			final V oldValue = current.value;
+			final V newValue = remappingFunction.apply(key, oldValue);
+
+			if (oldValue == null && newValue != null) words++;
+			else if (oldValue != null && newValue == null) words--;
+
+			current.value = newValue;
+			return newValue;
+		}
+
+		final char ch = key.charAt(pos);
+		Node<V> node = current.children.get(ch);
+
+		if (node == null) {
+			if (!createIfAbsent) return null;
+
+			node = newNode(labels);
+			nodes++;
+			reserveLabel(key.length() - pos - 1);
+			node.offset = labels.append(key, pos + 1, key.length());
+			node.length = key.length() - pos - 1;
+			labelChars += node.length;
+			current.children.put(ch, node);
+		} else {
+			final int len = getCommonPrefixLength(node, key, pos + 1);
+			if (len < node.length) {
+				if (!createIfAbsent) return null;
+				splitNode(node, len);
+			}
+		}
+
+		final long before = words;
+		try {
+			return update(node, key, pos + 1 + node.length, createIfAbsent, remappingFunction);
+		} finally {
+			node.count += words - before;
+
+			// undo whatever is not needed anymore, also when the function threw after a node was created or split
+			if (!node.isTerminal() && node.children.isEmpty()) {
+				current.children.remove(ch);
+				nodes--;
+				labelChars -= node.length;
+			} else mergeNode(node);
+		}
 	}
 
 	private void splitNode(final Node<V> node, final int point) {
-		if (node.prefix.length() < point)
+		if (node.length < point)
 			throw new IllegalStateException("Can not split a compressed node at a point which does not exists");
 
-		final char ch = node.prefix.charAt(point);
-		final Node<V> child = new Node<>();
+		final char ch = labels.charAt(node.offset + point);
+		final Node<V> child = newNode(labels);
 		nodes++;
 
-		child.prefix.append(node.prefix.substring(point + 1));
-		node.prefix.delete(point, node.prefix.length());
+		child.offset = node.offset + point + 1;
+		child.length = node.length - point - 1;
+		node.length = point;
+		labelChars--; // the character at split point is now the key of the child
 
-		child.children.putAll(node.children);
-		node.children.clear();
+		child.children = node.children;
+		node.children = new CharTable<>();
 
 		child.value = node.value;
+		child.count = node.count;
 		node.value = null;
 
 		node.children.put(ch, child);
+		onSplit(node, child);
 	}
 
-	@Override
-	public Optional<V> get(final String key) {
-		validateKey(key);
-
-		return find(key).map(node -> node.value);
+	/**
+	 * Creates a node, subclasses in this package may return nodes which carry more state.
+	 * Called from the constructor for the root, so it must not rely on the state of a subclass.
+	 */
+	Node<V> newNode(final LabelSlab labels) {
+		return new Node<>(labels);
 	}
 
-	@Override
-	public List<String> getKeysWithPrefix(final String prefix,
-										  final Comparator<Character> comparator,
-										  final int count) {
-		validateKey(prefix);
-		if (count < 1)
-			throw new IllegalArgumentException("Count of values to return with prefix is not a positive number");
-
-		final Optional<Node<V>> nodeOpt = find(prefix);
-		if (!nodeOpt.isPresent())
-			return Collections.emptyList();
-
-		final Node<V> node = nodeOpt.get();
-		final List<String> results = new ArrayList<>(count);
-		traverse(new StringBuilder(prefix).append(node.prefix), count, node, comparator, results);
-
-		return results;
+	/**
+	 * Called after a node is split, the child has taken over the value &amp; children of the node, which now only
+	 * has that child.
+	 */
+	void onSplit(final Node<V> node, final Node<V> child) {
 	}
 
+	/**
+	 * Unlike {@link #findNode(CharSequence, int, int)} the key may also end inside the compressed part of the
+	 * returned node, i.e. the returned node is the one under which all keys starting with the given key are.
+	 */
 	@Override
 	protected Optional<Node<V>> find(final String key) {
-		if (key == null || key.isEmpty())
-			return Optional.empty();
+		return Optional.ofNullable(findPrefix(key, null));
+	}
 
+	@Override
+	protected Node<V> findNode(final CharSequence key, final int from, final int to) {
 		Node<V> current = root;
-		for (int i = 0; i < key.length(); ++i) {
-			final char ch = key.charAt(i);
+		int i = from;
+		while (i < to) {
+			final Node<V> next = current.children.get(key.charAt(i++));
+			if (next == null || to - i < next.length)
+				return null;
 
-			if (!current.children.containsKey(ch))
-				return Optional.empty();
+			for (int j = next.offset, end = next.offset + next.length; j < end; ++j, ++i)
+				if (labels.charAt(j) != key.charAt(i)) return null;
 
-			final Node<V> next = current.children.get(ch);
-			final int len = getCommonPrefixLength(next.prefix, key.substring(i + 1));
-			if (i != key.length() - 1 && len < next.prefix.length())
-				return Optional.empty();
+			current = next;
+		}
+
+		return current;
+	}
+
+	@Override
+	protected Node<V> findNode(final char[] key, final int from, final int to) {
+		Node<V> current = root;
+		int i = from;
+		while (i < to) {
+			final Node<V> next = current.children.get(key[i++]);
+			if (next == null || to - i < next.length)
+				return null;
+
+			for (int j = next.offset, end = next.offset + next.length; j < end; ++j, ++i)
+				if (labels.charAt(j) != key[i]) return null;
 
-			i += len;
 			current = next;
 		}
 
-		return Optional.of(current);
+		return current;
 	}
 
-	private int getCommonPrefixLength(final StringBuilder a, final String b) {
-		int aptr = 0;
-		int bptr = 0;
-		while (aptr < a.length() && bptr < b.length() && a.charAt(aptr) == b.charAt(bptr)) {
-			aptr++;
-			bptr++;
+	@Override
+	protected Node<V> findPrefix(final CharSequence prefix, final StringBuilder completion) {
+		Node<V> current = root;
+		int i = 0;
+		while (i < prefix.length()) {
+			final Node<V> next = current.children.get(prefix.charAt(i++));
+			if (next == null)
+				return null;
+
+			int j = 0;
+			for (; j < next.length && i < prefix.length(); ++j, ++i)
+				if (labels.charAt(next.offset + j) != prefix.charAt(i)) return null;
+
+			if (completion != null)
+				labels.appendTo(completion, next.offset + j, next.length - j);
+			current = next;
 		}
 
-		return aptr;
+		return current;
 	}
 
-	private void traverse(final StringBuilder prefix,
-						  final int count,
-						  final Node<V> node,
-						  final Comparator<Character> keyComparator,
-						  final List<String> results) {
-		if (results.size() >= count) return;
-		if (node.isTerminal()) results.add(prefix.toString());
-
-		node.children.entrySet().stream()
-				.sorted((e1, e2) -> keyComparator.compare(e1.getKey(), e2.getKey()))
-				.forEachOrdered(entry -> {
-					if (results.size() <= count) {
-						traverse(prefix.append(entry.getKey()), count, entry.getValue(), keyComparator, results);
-						prefix.deleteCharAt(prefix.length() - 1);
-					}
-				});
+	/**
+	 * @return length of the common prefix of the compressed part of the node and the key starting at <tt>from</tt>
+	 */
+	private int getCommonPrefixLength(final Node<V> node, final CharSequence key, final int from) {
+		final int max = Math.min(node.length, key.length() - from);
+		int ptr = 0;
+		while (ptr < max && labels.charAt(node.offset + ptr) == key.charAt(from + ptr))
+			ptr++;
 
+		return ptr;
+	}
+
+	@Override
+	protected Node<V> getRoot() {
+		return this.root;
 	}
 
 	@Override
@@ -240,9 +373,17 @@ public class CompressedTrie<V> extends Trie<V> {
 
 	@Override
 	public Optional<V> remove(final String key) {
+		return Optional.ofNullable(removeAndGetPrevious(key));
+	}
+
+	@Override
+	public V removeAndGetPrevious(final String key) {
 		validateKey(key);
 
-		return Optional.ofNullable(remove(key, root, 0));
+		final V val = remove(key, root, 0);
+		if (val != null) root.count--;
+
+		return val;
 	}
 
 	private V remove(final String key, final Node<V> current, final int pos) {
@@ -262,13 +403,17 @@ public class CompressedTrie<V> extends Trie<V> {
 
 		if (node == null) return null;
 
-		final int newPos = pos + getCommonPrefixLength(node.prefix, key.substring(pos + 1)) + 1;
-		final V val = remove(key, node, newPos);
+		final int len = getCommonPrefixLength(node, key, pos + 1);
+		if (len < node.length) return null; // key diverges or ends inside the compressed part
+
+		final V val = remove(key, node, pos + len + 1);
+		if (val != null) node.count--;
 
 		// check if the `node` should be deleted
 		if (!node.isTerminal() && node.children.isEmpty()) {
 			current.children.remove(ch);
 			nodes--;
+			labelChars -= node.length;
 		}
 
 		if (current != root) mergeNode(current);
@@ -276,37 +421,554 @@ public class CompressedTrie<V> extends Trie<V> {
 	}
 
 	private void mergeNode(final Node<V> current) {
-		if (current.children.size() == 1 && current != root) {
-			final Map.Entry<Character, Node<V>> entry = current.children.entrySet()
-					.stream()
-					.findFirst()
-					.get();
-
-			current.prefix.append(entry.getKey()).append(entry.getValue().prefix);
-			current.children.clear();
-			current.value = entry.getValue().value;
+		if (current.children.size() == 1 && !current.isTerminal() && current != root) {
+			final int pos = current.children.first();
+			final char ch = current.children.keyAt(pos);
+			final Node<V> child = current.children.valueAt(pos);
+
+			final int end = current.offset + current.length;
+			if (child.offset != end + 1 || labels.charAt(end) != ch) {
+				// labels are not adjacent in the slab, so copy both at the end of it
+				reserveLabel(current.length + 1 + child.length);
+				current.offset = labels.append(current.offset, current.length, ch, child.offset, child.length);
+			}
+			current.length += 1 + child.length;
+			labelChars++;
+
+			current.children = child.children;
+			current.value = child.value; // the count stays, a node with a single child has as many keys as the child
 			nodes--;
 		}
 	}
 
+	/**
+	 * Makes sure that <tt>length</tt> characters can be appended to the label slab, compacting it instead of
+	 * growing it when most of it is garbage.
+	 * Compaction moves labels around, so offsets must only be read after this call.
+	 */
+	private void reserveLabel(final int length) {
+		if (labels.hasRoom(length)) return;
+
+		final long garbage = labels.used() - labelChars;
+		if (labels.used() >= COMPACTION_THRESHOLD && garbage > labels.used() / 2)
+			compactLabels(length);
+	}
+
+	/**
+	 * Copies the labels of all nodes into a fresh array, dropping the characters no longer referenced.
+	 */
+	private void compactLabels(final int extra) {
+		final char[] compacted = new char[(int) Math.max(COMPACTION_THRESHOLD, (labelChars + extra) * 2)];
+		int used = 0;
+
+		final Deque<Node<V>> stack = new ArrayDeque<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			final Node<V> node = stack.pop();
+			labels.copyTo(node.offset, node.length, compacted, used);
+			node.offset = used;
+			used += node.length;
+
+			for (int pos = node.children.first(); pos >= 0; pos = node.children.next(pos))
+				stack.push(node.children.valueAt(pos));
+		}
+
+		labels.replace(compacted, used);
+	}
+
+
+	/**
+	 * Builds a {@link CompressedTrie} from keys given in increasing order, e.g. to load a large dictionary from a
+	 * sorted file.
+	 * <p>
+	 * Since every key is greater than the previous one, only the nodes along the path of the previous key can still
+	 * change; they are kept on a stack. A key pops the nodes past its common prefix with the previous key, splits the
+	 * node in which that prefix ends if any, and hangs a single new node with the rest of the key below it. No key is
+	 * looked up from the root and no label is ever copied, so the whole build takes time linear in the total length
+	 * of the keys and leaves next to no garbage in the label slab.
+	 * <p>
+	 * Example Usage:
+	 * <pre>
+	 * final CompressedTrie&lt;Integer&gt; trie = new CompressedTrie.Builder&lt;Integer&gt;()
+	 * 		.add("HELLO", 1)
+	 * 		.add("HELP", 2)
+	 * 		.add("WORLD", 3)
+	 * 		.build();
+	 * </pre>
+	 *
+	 * @param <V> the type of the values that are stored
+	 */
+	public static final class Builder<V> {
+
+		private CompressedTrie<V> trie;
+
+		/**
+		 * Nodes along the path of the previous key, the root first.
+		 */
+		private Node<V>[] path;
+
+		/**
+		 * Number of characters of the previous key up to the end of the label of every node of the path.
+		 */
+		private int[] ends;
+
+		private int depth;
+
+		/**
+		 * Number of leading characters all the keys share, which the root stands for.
+		 */
+		private final int floor;
+
+		private String previous;
+
+
+		public Builder() {
+			this(0, null);
+		}
+
+		/**
+		 * Builds the subtree of the keys starting with a common prefix, whose root stands for that prefix.
+		 *
+		 * @param floor    length of the prefix all the keys start with
+		 * @param previous the key all the keys must be greater than, <tt>null</tt> for none
+		 */
+		@SuppressWarnings("unchecked")
+		private Builder(final int floor, final String previous) {
+			this.trie = new CompressedTrie<>();
+			this.path = (Node<V>[]) new Node<?>[16];
+			this.ends = new int[16];
+			this.path[0] = trie.root;
+			this.ends[0] = floor;
+			this.depth = 1;
+			this.floor = floor;
+			this.previous = previous;
+		}
+
+		/**
+		 * Adds a key with the associated value, the key must be greater than all the keys added before.
+		 *
+		 * @param key   the key to be added
+		 * @param value the associated value object
+		 *
+		 * @return this builder
+		 *
+		 * @throws IllegalArgumentException if the key is empty, or not greater than the previous key
+		 * @throws NullPointerException     if the key or value is <tt>null</tt>
+		 * @throws IllegalStateException    if the trie was already built
+		 */
+		public Builder<V> add(final String key, final V value) {
+			if (trie == null) throw new IllegalStateException("Trie was already built");
+			trie.validateKey(key);
+			trie.validateValue(value);
+
+			int common = floor;
+			if (previous != null) {
+				common = 0;
+				final int max = Math.min(key.length(), previous.length());
+				while (common < max && key.charAt(common) == previous.charAt(common)) common++;
+
+				if (common == key.length() || common < previous.length() && key.charAt(common) < previous.charAt(common))
+					throw new IllegalArgumentException("Key '" + key + "' is not greater than the previous key '" +
+							previous + "'");
+				if (common < floor)
+					throw new IllegalArgumentException("Key '" + key + "' is out of order");
+			}
+
+			// close the nodes past the common prefix, splitting the one in which it ends
+			while (ends[depth - 1] > common) {
+				final Node<V> node = path[depth - 1];
+				final int edge = ends[depth - 1] - node.length - 1;
+				if (edge < common) {
+					trie.splitNode(node, common - edge - 1);
+					ends[depth - 1] = common;
+					break;
+				}
+
+				path[--depth] = null;
+			}
+
+			final Node<V> node = trie.newNode(trie.labels);
+			node.offset = trie.labels.append(key, common + 1, key.length());
+			node.length = key.length() - common - 1;
+			node.value = value;
+			node.count = 1L;
+			path[depth - 1].children.put(key.charAt(common), node);
+
+			for (int i = 0; i < depth; ++i) path[i].count++;
+			if (depth == path.length) {
+				path = Arrays.copyOf(path, depth * 2);
+				ends = Arrays.copyOf(ends, depth * 2);
+			}
+			path[depth] = node;
+			ends[depth++] = key.length();
+
+			trie.words++;
+			trie.nodes++;
+			trie.labelChars += node.length;
+			previous = key;
+			return this;
+		}
+
+		/**
+		 * @return the trie holding all the added keys, after which this builder can not be used anymore
+		 *
+		 * @throws IllegalStateException if the trie was already built
+		 */
+		public CompressedTrie<V> build() {
+			if (trie == null) throw new IllegalStateException("Trie was already built");
+
+			final CompressedTrie<V> built = trie;
+			trie = null;
+			path = null;
+			return built;
+		}
+
+		/**
+		 * Builds a {@link CompressedTrie} from entries sorted by key, on the threads of a {@link ForkJoinPool}.
+		 * <p>
+		 * The entries are partitioned by their leading characters: a range of entries is split by the character at
+		 * which its first &amp; last keys diverge, and the ranges which are small enough are built into independent
+		 * subtries, as by a {@link Builder}, in parallel. The subtries are then stitched under nodes for the shared
+		 * prefixes, and their labels moved into the label slab of the trie, again in parallel. The result is the
+		 * same as building the trie with a single {@link Builder}.
+		 * <p>
+		 * Example Usage, for entries read from a sorted file:
+		 * <pre>
+		 * final CompressedTrie&lt;Integer&gt; trie = CompressedTrie.Builder.buildParallel(entries, ForkJoinPool.commonPool());
+		 * </pre>
+		 *
+		 * @param entries the entries to add, sorted by key, should allow fast random access
+		 * @param pool    the pool whose threads build the trie
+		 * @param <V>     the type of the values that are stored
+		 *
+		 * @return the trie holding all the entries
+		 *
+		 * @throws IllegalArgumentException if a key is empty, or the keys are not in strictly increasing order
+		 * @throws NullPointerException     if a key or value is <tt>null</tt>, or the entries or pool are
+		 */
+		public static <V> CompressedTrie<V> buildParallel(final List<? extends Map.Entry<String, ? extends V>> entries,
+														  final ForkJoinPool pool) {
+			Objects.requireNonNull(entries);
+			Objects.requireNonNull(pool);
+
+			final int threshold = Math.max(MIN_PARTITION_SIZE, entries.size() / (pool.getParallelism() * 8));
+			if (entries.size() <= threshold) {
+				final Builder<V> builder = new Builder<>();
+				for (final Map.Entry<String, ? extends V> entry : entries) builder.add(entry.getKey(), entry.getValue());
+				return builder.build();
+			}
+
+			final CompressedTrie<V> trie = new CompressedTrie<>();
+			final List<Part<V>> parts = pool.invoke(new BuildTask<>(trie, entries, 0, entries.size(), 0, threshold));
+
+			// the labels of the subtries are laid out one after the other, followed by those of the stitching nodes
+			int used = 0;
+			final int[] bases = new int[parts.size()];
+			for (int i = 0; i < parts.size(); ++i) {
+				final Part<V> part = parts.get(i);
+				if (part.subtrie != null) {
+					bases[i] = used;
+					used += part.subtrie.labels.used();
+					trie.nodes += part.subtrie.nodes;
+					trie.labelChars += part.subtrie.labelChars;
+				} else if (part.node != trie.root) trie.nodes++;
+			}
+			int offset = used;
+			for (final Part<V> part : parts) used += part.to - part.from;
+
+			final char[] chars = new char[used];
+			final List<ForkJoinTask<?>> moves = new ArrayList<>();
+			for (int i = 0; i < parts.size(); ++i) {
+				final Part<V> part = parts.get(i);
+				final int base = bases[i];
+				if (part.subtrie != null) moves.add(ForkJoinTask.adapt(() -> part.move(trie.labels, chars, base)));
+			}
+			pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(moves)));
+
+			for (final Part<V> part : parts) {
+				part.key.getChars(part.from, part.to, chars, offset);
+				part.node.offset = offset;
+				part.node.length = part.to - part.from;
+				offset += part.node.length;
+				trie.labelChars += part.node.length;
+			}
+
+			trie.labels.replace(chars, used);
+			trie.words = entries.size();
+			return trie;
+		}
+
+	}
+
+
+	/**
+	 * A node built by a {@link BuildTask}, either a node stitching subtries together or the root of a subtrie,
+	 * whose label is only written to the label slab once all the subtries are built.
+	 */
+	private static final class Part<V> {
+
+		private final Node<V> node;
+
+		/**
+		 * The subtrie whose root is the node, <tt>null</tt> for a stitching node.
+		 */
+		private final CompressedTrie<V> subtrie;
+
+		/**
+		 * The label of the node, as the characters of a key between <tt>from</tt> (inclusive) &amp; <tt>to</tt>
+		 * (exclusive).
+		 */
+		private final String key;
+
+		private final int from;
+
+		private final int to;
+
+
+		private Part(final Node<V> node, final CompressedTrie<V> subtrie, final String key, final int from, final int to) {
+			this.node = node;
+			this.subtrie = subtrie;
+			this.key = key;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Copies the labels of the subtrie into the array of the label slab of the trie, at <tt>base</tt>, and points
+		 * all of its nodes to them.
+		 */
+		private void move(final LabelSlab labels, final char[] chars, final int base) {
+			subtrie.labels.copyTo(0, subtrie.labels.used(), chars, base);
+
+			final Deque<Node<V>> stack = new ArrayDeque<>();
+			stack.push(node);
+			while (!stack.isEmpty()) {
+				final Node<V> current = stack.pop();
+				current.labels = labels;
+				current.offset += base;
+
+				for (int pos = current.children.first(); pos >= 0; pos = current.children.next(pos))
+					stack.push(current.children.valueAt(pos));
+			}
+		}
+
+	}
+
+	/**
+	 * Builds the nodes of a range of sorted entries whose keys all start with the same <tt>start</tt> characters,
+	 * below the node standing for those characters.
+	 * <p>
+	 * The node of the range stands for the prefix shared by its first &amp; last keys, hence by all of its keys, so it
+	 * is always a proper node of a compressed trie: either it holds the key equal to that prefix or it has at least
+	 * two children. Small ranges are built by a {@link Builder} into a subtrie, larger ones are split by the
+	 * character after the prefix, found by binary search, into subranges. The largest subrange is built by the same
+	 * task in a loop and the others are forked, so nested keys such as <tt>x</tt>, <tt>xx</tt>, <tt>xxx</tt>... build
+	 * a chain of nodes without a task, a stack frame or a scan of the range per character, and forked tasks are at
+	 * most half the size of their range.
+	 * <p>
+	 * Every two adjacent keys are checked to be in order exactly once: by the {@link Builder} of the subtrie holding
+	 * both, or by the task splitting them apart.
+	 */
+	private static final class BuildTask<V> extends RecursiveTask<List<Part<V>>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CompressedTrie<V> trie;
+
+		private final List<? extends Map.Entry<String, ? extends V>> entries;
+
+		private final int from;
+
+		private final int to;
+
+		private final int start;
+
+		private final int threshold;
+
+
+		private BuildTask(final CompressedTrie<V> trie,
+						  final List<? extends Map.Entry<String, ? extends V>> entries,
+						  final int from,
+						  final int to,
+						  final int start,
+						  final int threshold) {
+			this.trie = trie;
+			this.entries = entries;
+			this.from = from;
+			this.to = to;
+			this.start = start;
+			this.threshold = threshold;
+		}
+
+		/**
+		 * @return the parts of the nodes built for the range, the one of the node of the range first
+		 */
+		@Override
+		protected List<Part<V>> compute() {
+			// the parts of the nodes built by this task, each one a child of the previous one
+			final List<Part<V>> chain = new ArrayList<>();
+			// the tasks forked for the other children of every node of the chain but the last
+			final List<List<BuildTask<V>>> forked = new ArrayList<>();
+
+			int lo = from;
+			int hi = to;
+			int begin = start;
+			while (true) {
+				final boolean isRoot = begin == 0;
+				final String first = keyAt(lo);
+
+				// the root stands for the empty prefix, whatever its keys share
+				final String lastKey = keyAt(hi - 1);
+				int end = begin;
+				if (!isRoot) {
+					final int max = Math.min(first.length(), lastKey.length());
+					while (end < max && first.charAt(end) == lastKey.charAt(end)) end++;
+				}
+				int next = lo;
+				String previous = null;
+				V value = null;
+				if (!isRoot && first.length() == end) {
+					value = entries.get(lo).getValue();
+					trie.validateValue(value);
+					previous = first;
+					next++;
+				}
+
+				if (!isRoot && hi - lo <= threshold) {
+					final Builder<V> builder = new Builder<>(end, previous);
+					for (int i = next; i < hi; ++i) builder.add(entries.get(i).getKey(), entries.get(i).getValue());
+
+					final CompressedTrie<V> subtrie = builder.build();
+					if (value != null) {
+						subtrie.root.value = value;
+						subtrie.root.count++;
+					}
+
+					chain.add(new Part<>(subtrie.root, subtrie, first, begin, end));
+					break;
+				}
+
+				final Node<V> node = isRoot ? trie.root : trie.newNode(trie.labels);
+				node.value = value;
+				chain.add(new Part<>(node, null, first, begin, end));
+
+				// split the rest of the range by the character after the prefix, the largest subrange is kept
+				final List<BuildTask<V>> tasks = new ArrayList<>();
+				int largestFrom = -1;
+				int largestTo = -1;
+				for (int runFrom = next, runTo; runFrom < hi; runFrom = runTo) {
+					final char ch = charAt(runFrom, end);
+					runTo = endOfRun(runFrom, hi, end, ch);
+					if (previous != null && previous.compareTo(keyAt(runFrom)) >= 0 || charAt(runTo - 1, end) != ch)
+						throw new IllegalArgumentException("Key '" + keyAt(runFrom) + "' is out of order");
+
+					if (runTo - runFrom > largestTo - largestFrom) {
+						if (largestFrom >= 0)
+							tasks.add(new BuildTask<>(trie, entries, largestFrom, largestTo, end + 1, threshold));
+						largestFrom = runFrom;
+						largestTo = runTo;
+					} else {
+						tasks.add(new BuildTask<>(trie, entries, runFrom, runTo, end + 1, threshold));
+					}
+					previous = keyAt(runTo - 1);
+				}
+
+				for (final BuildTask<V> task : tasks) task.fork();
+				forked.add(tasks);
+				lo = largestFrom;
+				hi = largestTo;
+				begin = end + 1;
+			}
+
+			// link the chain bottom up, once the children forked from every node are built
+			final List<Part<V>> parts = new ArrayList<>(chain);
+			for (int i = chain.size() - 2; i >= 0; --i) {
+				final Node<V> node = chain.get(i).node;
+				node.count = node.value != null ? 1 : 0;
+				for (final BuildTask<V> task : forked.get(i)) {
+					final List<Part<V>> built = task.join();
+					link(node, built.get(0));
+					parts.addAll(built);
+				}
+				link(node, chain.get(i + 1));
+			}
+
+			return parts;
+		}
+
+		/**
+		 * Adds the node of the part as a child of the node, the character of its edge is the one before its label.
+		 */
+		private static <V> void link(final Node<V> node, final Part<V> child) {
+			node.children.put(child.key.charAt(child.from - 1), child.node);
+			node.count += child.node.count;
+		}
+
+		/**
+		 * @return the index after the last key from <tt>lo</tt> on having the character <tt>ch</tt> at <tt>pos</tt>,
+		 * found by binary search as the keys up to <tt>hi</tt> are sorted
+		 */
+		private int endOfRun(final int lo, final int hi, final int pos, final char ch) {
+			int low = lo + 1;
+			int high = hi;
+			while (low < high) {
+				final int mid = (low + high) >>> 1;
+				if (charAt(mid, pos) <= ch) low = mid + 1;
+				else high = mid;
+			}
+
+			return low;
+		}
+
+		private String keyAt(final int index) {
+			final String key = entries.get(index).getKey();
+			trie.validateKey(key);
+			return key;
+		}
+
+		/**
+		 * @return the character at <tt>pos</tt> of the key at the index, which all the keys of a range but its first
+		 * one have
+		 */
+		private char charAt(final int index, final int pos) {
+			final String key = keyAt(index);
+			if (key.length() <= pos) throw new IllegalArgumentException("Key '" + key + "' is out of order");
+
+			return key.charAt(pos);
+		}
+
+	}
+
 
 	protected static class Node<V> extends Trie.Node<V> {
 
-		private final Map<Character, Node<V>> children;
+		private LabelSlab labels;
+
+		private int offset;
+
+		private int length;
 
-		private final StringBuilder prefix;
+		private CharTable<Node<V>> children;
 
 		private V value;
 
+		/**
+		 * Number of keys ending at this node or under it.
+		 */
+		private long count;
 
-		private Node() {
-			this.children = new HashMap<>();
+
+		Node(final LabelSlab labels) {
+			this.labels = labels;
+			this.offset = 0;
+			this.length = 0;
+			this.children = new CharTable<>();
 			this.value = null;
-			this.prefix = new StringBuilder();
+			this.count = 0L;
 		}
 
-		public StringBuilder getPrefix() {
-			return prefix;
+		public String getPrefix() {
+			return labels.toString(offset, length);
 		}
 
 		@Override
@@ -319,6 +981,31 @@ public class CompressedTrie<V> extends Trie<V> {
 			return this.value != null;
 		}
 
+		@Override
+		protected CharTable<Node<V>> getChildren() {
+			return this.children;
+		}
+
+		@Override
+		protected int getLabelLength() {
+			return this.length;
+		}
+
+		@Override
+		protected char getLabelCharAt(final int index) {
+			return labels.charAt(offset + index);
+		}
+
+		@Override
+		protected void appendLabel(final StringBuilder sb) {
+			labels.appendTo(sb, offset, length);
+		}
+
+		@Override
+		protected long getCountOfKeys() {
+			return this.count;
+		}
+
 	}
 
 }
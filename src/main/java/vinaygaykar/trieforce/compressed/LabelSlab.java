@@ -0,0 +1,116 @@
+package vinaygaykar.trieforce.compressed;
+
+
+import java.util.Arrays;
+
+
+/**
+ * An append-only store of characters shared by all the nodes of a {@link CompressedTrie}.
+ * <p>
+ * Instead of every node owning a {@link StringBuilder} for its compressed part (an extra object and an
+ * over-allocated {@code char[]} per node), a node only keeps an <tt>(offset, length)</tt> reference into this slab.
+ * Splitting a node is then just a matter of adjusting those references.
+ * Characters are never removed from the slab, labels which are no longer referenced become garbage which is
+ * reclaimed when the owning trie compacts the slab with {@link #replace(char[], int)}.
+ *
+ * @author Vinay Gaykar
+ */
+final class LabelSlab {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+
+	private char[] chars;
+
+	private int used;
+
+
+	LabelSlab() {
+		this.chars = new char[INITIAL_CAPACITY];
+		this.used = 0;
+	}
+
+	/**
+	 * @return number of characters appended to the slab, including garbage
+	 */
+	int used() {
+		return this.used;
+	}
+
+	/**
+	 * @param length number of characters to append
+	 *
+	 * @return true if that many characters can be appended without growing the slab
+	 */
+	boolean hasRoom(final int length) {
+		return chars.length - used >= length;
+	}
+
+	char charAt(final int offset) {
+		return chars[offset];
+	}
+
+	/**
+	 * Appends the characters of <tt>source</tt> between <tt>from</tt> (inclusive) &amp; <tt>to</tt> (exclusive).
+	 *
+	 * @return offset of the first appended character
+	 */
+	int append(final CharSequence source, final int from, final int to) {
+		ensureCapacity(to - from);
+
+		final int offset = used;
+		for (int i = from; i < to; ++i)
+			chars[used++] = source.charAt(i);
+		return offset;
+	}
+
+	/**
+	 * Appends <tt>first</tt> label, the <tt>middle</tt> character and then <tt>second</tt> label, all already
+	 * present in this slab.
+	 *
+	 * @return offset of the first appended character
+	 */
+	int append(final int first, final int firstLength, final char middle, final int second, final int secondLength) {
+		ensureCapacity(firstLength + 1 + secondLength);
+
+		final int offset = used;
+		System.arraycopy(chars, first, chars, used, firstLength);
+		used += firstLength;
+		chars[used++] = middle;
+		System.arraycopy(chars, second, chars, used, secondLength);
+		used += secondLength;
+		return offset;
+	}
+
+	void appendTo(final StringBuilder sb, final int offset, final int length) {
+		sb.append(chars, offset, length);
+	}
+
+	String toString(final int offset, final int length) {
+		return new String(chars, offset, length);
+	}
+
+	/**
+	 * Copies a label into a compacted array, used when compacting the slab.
+	 */
+	void copyTo(final int offset, final int length, final char[] target, final int targetOffset) {
+		System.arraycopy(chars, offset, target, targetOffset, length);
+	}
+
+	/**
+	 * Replaces the contents of this slab with a compacted array.
+	 *
+	 * @param compacted the new backing array
+	 * @param length    number of characters used in the new array
+	 */
+	void replace(final char[] compacted, final int length) {
+		this.chars = compacted;
+		this.used = length;
+	}
+
+	private void ensureCapacity(final int length) {
+		if (!hasRoom(length))
+			chars = Arrays.copyOf(chars, Math.max(chars.length * 2, used + length));
+	}
+
+}
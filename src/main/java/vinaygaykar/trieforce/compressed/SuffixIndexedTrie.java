@@ -0,0 +1,190 @@
+package vinaygaykar.trieforce.compressed;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+
+
+/**
+ * A {@link CompressedTrie} which also keeps an index of the suffixes of its keys, to answer suffix &amp; substring
+ * queries without looking at every key.
+ * <p>
+ * The index is a second Trie holding every suffix of every key, each mapped to the sorted set of the keys it is a
+ * suffix of. It is updated on every write which adds or removes a key, so it always agrees with the keys.
+ * A key ends with a string exactly when the string is one of its suffixes, so {@link #getKeysWithSuffix(String, int)}
+ * is a single lookup in the index followed by the first <tt>count</tt> keys of the set; and a key contains a string
+ * exactly when one of its suffixes starts with it, so {@link #getKeysContaining(String, int)} merges the already
+ * sorted sets of the suffixes under that prefix of the index, stopping once it has <tt>count</tt> distinct keys.
+ * <p>
+ * A suffix query takes time proportional to the suffix plus <tt>count * log(k)</tt>, for <tt>k</tt> keys ending with
+ * it. A substring query takes time proportional to the number of distinct suffixes starting with the string, as
+ * every one of them is visited to start the merge, plus <tt>count</tt> times the log of that number; neither
+ * depends on the number of keys as such, but a short string such as a single character starts a large part of all
+ * suffixes and hence costs close to a scan of the index.
+ * <p>
+ * The price is paid on writes and in memory: adding or removing a key of length <tt>n</tt> looks up its <tt>n</tt>
+ * suffixes in the index, which takes time proportional to <tt>n * n</tt>, and inserts or removes the key in the set
+ * of each of them, which takes <tt>n * log(k)</tt> for sets of up to <tt>k</tt> keys; a one character suffix is
+ * shared by about <tt>N / σ</tt> of <tt>N</tt> keys over an alphabet of <tt>σ</tt> characters. The index holds up
+ * to <tt>n</tt> more nodes, <tt>n * (n + 1) / 2</tt> more label characters &amp; <tt>n</tt> set entries per key,
+ * less whatever is shared with other keys. This suits dictionaries of words, names or paths rather than of long
+ * texts.
+ * <p>
+ * Example Usage:
+ * <pre>
+ * final SuffixIndexedTrie&lt;Integer&gt; trie = new SuffixIndexedTrie&lt;&gt;();
+ * trie.put("app.log", 1);
+ * trie.put("sys.log", 2);
+ * trie.put("catalog", 3);
+ * trie.getKeysWithSuffix(".log", 10); // returns "app.log" &amp; "sys.log"
+ * trie.getKeysContaining("log", 10); // returns "app.log", "catalog" &amp; "sys.log"
+ * </pre>
+ *
+ * @param <V> the type of the values that are stored
+ *
+ * @author Vinay Gaykar
+ * @see CompressedTrie
+ */
+public class SuffixIndexedTrie<V> extends CompressedTrie<V> {
+
+	/**
+	 * Every suffix of every key, mapped to the sorted set of the keys it is a suffix of.
+	 */
+	private final CompressedTrie<TreeSet<String>> suffixes;
+
+
+	public SuffixIndexedTrie() {
+		this.suffixes = new CompressedTrie<>();
+	}
+
+	@Override
+	protected V putValue(final String key, final V value, final boolean onlyIfAbsent) {
+		final V previous = super.putValue(key, value, onlyIfAbsent);
+		if (previous == null) index(key);
+
+		return previous;
+	}
+
+	@Override
+	protected V update(final String key,
+					   final boolean createIfAbsent,
+					   final BiFunction<String, ? super V, ? extends V> remappingFunction) {
+		final boolean present = containsKey(key);
+		try {
+			return super.update(key, createIfAbsent, remappingFunction);
+		} finally {
+			if (!present && containsKey(key)) index(key);
+			else if (present && !containsKey(key)) unindex(key);
+		}
+	}
+
+	@Override
+	public V removeAndGetPrevious(final String key) {
+		final V previous = super.removeAndGetPrevious(key);
+		if (previous != null) unindex(key);
+
+		return previous;
+	}
+
+	/**
+	 * A single lookup in the index of suffixes, the keys ending with the suffix are already in sorted order there.
+	 */
+	@Override
+	public List<String> getKeysWithSuffix(final String suffix, final int count) {
+		validateKey(suffix);
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return is not a positive number");
+
+		final TreeSet<String> owners = suffixes.getOrDefault(suffix, null);
+		if (owners == null)
+			return Collections.emptyList();
+
+		final List<String> keys = new ArrayList<>(Math.min(count, owners.size()));
+		for (final Iterator<String> it = owners.iterator(); it.hasNext() && keys.size() < count; )
+			keys.add(it.next());
+
+		return keys;
+	}
+
+	/**
+	 * Merges the sorted sets of the suffixes starting with the string in the index of suffixes, a key containing the
+	 * string more than once is in several of them but is returned once.
+	 */
+	@Override
+	public List<String> getKeysContaining(final String infix, final int count) {
+		validateKey(infix);
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return is not a positive number");
+
+		final PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+		suffixes.entriesWithPrefix(infix).forEach(entry -> cursors.add(new Cursor(entry.getValue().iterator())));
+
+		final List<String> keys = new ArrayList<>();
+		while (keys.size() < count && !cursors.isEmpty()) {
+			final Cursor cursor = cursors.poll();
+			if (keys.isEmpty() || !keys.get(keys.size() - 1).equals(cursor.key)) keys.add(cursor.key);
+			if (cursor.advance()) cursors.add(cursor);
+		}
+
+		return keys;
+	}
+
+	private void index(final String key) {
+		for (int i = 0; i < key.length(); ++i) {
+			final String suffix = key.substring(i);
+			TreeSet<String> owners = suffixes.getOrDefault(suffix, null);
+			if (owners == null) {
+				owners = new TreeSet<>();
+				suffixes.putAndGetPrevious(suffix, owners);
+			}
+			owners.add(key);
+		}
+	}
+
+	private void unindex(final String key) {
+		for (int i = 0; i < key.length(); ++i) {
+			final String suffix = key.substring(i);
+			final TreeSet<String> owners = suffixes.getOrDefault(suffix, null);
+			if (owners != null && owners.remove(key) && owners.isEmpty()) suffixes.removeAndGetPrevious(suffix);
+		}
+	}
+
+
+	/**
+	 * The next key of a sorted set of keys, ordered by that key to merge several sets.
+	 */
+	private static final class Cursor implements Comparable<Cursor> {
+
+		private final Iterator<String> rest;
+
+		private String key;
+
+
+		private Cursor(final Iterator<String> keys) {
+			this.rest = keys;
+			this.key = keys.next();
+		}
+
+		/**
+		 * @return true if there was a next key to move to
+		 */
+		private boolean advance() {
+			if (!rest.hasNext()) return false;
+
+			key = rest.next();
+			return true;
+		}
+
+		@Override
+		public int compareTo(final Cursor other) {
+			return key.compareTo(other.key);
+		}
+
+	}
+
+}
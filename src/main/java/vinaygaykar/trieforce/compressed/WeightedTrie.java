@@ -0,0 +1,279 @@
+package vinaygaykar.trieforce.compressed;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.BiFunction;
+import java.util.function.ToDoubleFunction;
+
+import vinaygaykar.trieforce.CharTable;
+
+
+/**
+ * A {@link CompressedTrie} in which every key carries a weight, derived from its value, to answer top-K
+ * autocompletion: the keys with a prefix which have the highest weights, rather than the lexicographically first
+ * ones.
+ * <p>
+ * Every node caches the maximum weight of the keys under it, kept up to date on every write along the path of the
+ * written key. {@link #getTopKeysWithPrefix(String, int)} then does a best-first traversal with a priority queue,
+ * always expanding the subtree with the highest maximum weight, so only the subtrees leading to the returned keys are
+ * expanded whatever the number of keys under the prefix.
+ * <p>
+ * Example Usage, with the value being the number of times a query was searched:
+ * <pre>
+ * final WeightedTrie&lt;Integer&gt; trie = new WeightedTrie&lt;&gt;(Integer::doubleValue);
+ * trie.put("HELLO", 10);
+ * trie.put("HELP", 30);
+ * trie.put("HELM", 20);
+ * trie.getTopKeysWithPrefix("HE", 2); // returns "HELP" &amp; "HELM"
+ * </pre>
+ *
+ * @param <V> the type of the values that are stored
+ *
+ * @author Vinay Gaykar
+ * @see CompressedTrie
+ */
+public class WeightedTrie<V> extends CompressedTrie<V> {
+
+	private final ToDoubleFunction<? super V> weigher;
+
+	/**
+	 * Nodes along the path of the last written key, reused between writes.
+	 */
+	private WeightedNode<?>[] path;
+
+
+	/**
+	 * @param weigher the function giving the weight of a key from its value, must not return {@link Double#NaN}
+	 *
+	 * @throws NullPointerException if the weigher is <tt>null</tt>
+	 */
+	public WeightedTrie(final ToDoubleFunction<? super V> weigher) {
+		this.weigher = Objects.requireNonNull(weigher);
+		this.path = new WeightedNode<?>[16];
+	}
+
+	@Override
+	protected V putValue(final String key, final V value, final boolean onlyIfAbsent) {
+		final V previous = super.putValue(key, value, onlyIfAbsent);
+		if (previous == null || !onlyIfAbsent) refresh(key);
+
+		return previous;
+	}
+
+	@Override
+	protected V update(final String key,
+					   final boolean createIfAbsent,
+					   final BiFunction<String, ? super V, ? extends V> remappingFunction) {
+		try {
+			return super.update(key, createIfAbsent, remappingFunction);
+		} finally {
+			refresh(key);
+		}
+	}
+
+	@Override
+	public V removeAndGetPrevious(final String key) {
+		final V previous = super.removeAndGetPrevious(key);
+		if (previous != null) refresh(key);
+
+		return previous;
+	}
+
+	/**
+	 * Searches the Trie for the keys that start with the given prefix and have the highest weights.
+	 * Will return a list of matching keys as a {@link List} of max size <tt>count</tt>, in decreasing order of
+	 * weight; keys of equal weight are returned in no particular order.
+	 *
+	 * @param prefix the prefix to search for
+	 * @param count  the maximum number of words to return
+	 *
+	 * @return a {@link List} of the keys that start with the given prefix with the highest weights, up to a maximum
+	 * of <tt>count</tt>
+	 *
+	 * @throws IllegalArgumentException if the key is empty or count is not positive
+	 * @throws NullPointerException     if the key is <tt>null</tt>
+	 */
+	public List<String> getTopKeysWithPrefix(final String prefix, final int count) {
+		validateKey(prefix);
+		if (count < 1)
+			throw new IllegalArgumentException("Count of values to return with prefix is not a positive number");
+
+		final StringBuilder completion = new StringBuilder(prefix);
+		final Node<V> start = findPrefix(prefix, completion);
+		if (start == null)
+			return Collections.emptyList();
+
+		final List<String> results = new ArrayList<>((int) Math.min(count, start.getCountOfKeys()));
+		final PriorityQueue<Candidate> queue = new PriorityQueue<>();
+		queue.add(new Candidate(null, completion.toString(), '\0', start, weighted(start).max, false, 0));
+
+		long order = 1;
+		while (!queue.isEmpty() && results.size() < count) {
+			final Candidate candidate = queue.poll();
+			if (candidate.isKey) {
+				results.add(candidate.key());
+				continue;
+			}
+
+			// expand the subtree: the key of its node, if any, competes with the subtrees of its children
+			final Node<?> node = candidate.node;
+			if (node.isTerminal())
+				queue.add(new Candidate(candidate.parent, candidate.base, candidate.edge, node, weightOf(node), true,
+						order++));
+
+			final CharTable<? extends Node<?>> children = node.getChildren();
+			for (int pos = children.first(); pos >= 0; pos = children.next(pos)) {
+				final Node<?> child = children.valueAt(pos);
+				queue.add(new Candidate(candidate, null, children.keyAt(pos), child, weighted(child).max, false,
+						order++));
+			}
+		}
+
+		return results;
+	}
+
+	@Override
+	Node<V> newNode(final LabelSlab labels) {
+		return new WeightedNode<>(labels);
+	}
+
+	@Override
+	void onSplit(final Node<V> node, final Node<V> child) {
+		weighted(child).max = weighted(node).max;
+	}
+
+	/**
+	 * Recomputes the maximum weight of the nodes along the path of the key, bottom up.
+	 * A node only has to look at all of its children when its maximum decreased, otherwise the maximum of the child
+	 * on the path is enough.
+	 */
+	private void refresh(final String key) {
+		Node<V> node = getRoot();
+		int depth = 0;
+		path[depth++] = weighted(node);
+
+		// the last node may extend past the key, e.g. when a node was merged with its child after a removal
+		for (int i = 0; i < key.length(); ) {
+			final Node<V> child = node.getChildren().get(key.charAt(i));
+			if (child == null) break;
+
+			if (depth == path.length) path = Arrays.copyOf(path, depth * 2);
+			path[depth++] = weighted(child);
+			i += 1 + child.getLabelLength();
+			node = child;
+		}
+
+		double childMax = Double.NEGATIVE_INFINITY;
+		for (int d = depth - 1; d >= 0; --d) {
+			final WeightedNode<?> current = path[d];
+			path[d] = null;
+
+			final double candidate = Math.max(weightOf(current), childMax);
+			if (candidate >= current.max) current.max = candidate;
+			else {
+				double max = weightOf(current);
+				final CharTable<? extends Node<?>> children = current.getChildren();
+				for (int pos = children.first(); pos >= 0; pos = children.next(pos))
+					max = Math.max(max, weighted(children.valueAt(pos)).max);
+				current.max = max;
+			}
+
+			childMax = current.max;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private double weightOf(final Node<?> node) {
+		return node.isTerminal() ? weigher.applyAsDouble(((Node<V>) node).getValue()) : Double.NEGATIVE_INFINITY;
+	}
+
+	private static WeightedNode<?> weighted(final Node<?> node) {
+		return (WeightedNode<?>) node;
+	}
+
+
+	/**
+	 * A node which also keeps the maximum weight of the keys under it.
+	 */
+	private static final class WeightedNode<V> extends Node<V> {
+
+		private double max;
+
+
+		private WeightedNode(final LabelSlab labels) {
+			super(labels);
+			this.max = Double.NEGATIVE_INFINITY;
+		}
+
+	}
+
+	/**
+	 * An entry of the priority queue of the top-K search: either a subtree, ranked by its maximum weight, or a single
+	 * key, ranked by its weight.
+	 * The key of the node is only built for the returned keys, by following the parents.
+	 */
+	private static final class Candidate implements Comparable<Candidate> {
+
+		private final Candidate parent;
+
+		/**
+		 * Key of the node for the candidate of the starting node, <tt>null</tt> for all others.
+		 */
+		private final String base;
+
+		private final char edge;
+
+		private final Node<?> node;
+
+		private final double weight;
+
+		private final boolean isKey;
+
+		private final long order;
+
+
+		private Candidate(final Candidate parent,
+						  final String base,
+						  final char edge,
+						  final Node<?> node,
+						  final double weight,
+						  final boolean isKey,
+						  final long order) {
+			this.parent = parent;
+			this.base = base;
+			this.edge = edge;
+			this.node = node;
+			this.weight = weight;
+			this.isKey = isKey;
+			this.order = order;
+		}
+
+		private String key() {
+			final List<Candidate> chain = new ArrayList<>();
+			Candidate current = this;
+			for (; current.base == null; current = current.parent)
+				chain.add(current);
+
+			final StringBuilder sb = new StringBuilder(current.base);
+			for (int i = chain.size() - 1; i >= 0; --i)
+				chain.get(i).node.appendLabel(sb.append(chain.get(i).edge));
+			return sb.toString();
+		}
+
+		@Override
+		public int compareTo(final Candidate other) {
+			final int cmp = Double.compare(other.weight, this.weight);
+			if (cmp != 0) return cmp;
+			if (this.isKey != other.isKey) return this.isKey ? -1 : 1;
+
+			return Long.compare(this.order, other.order);
+		}
+
+	}
+
+}
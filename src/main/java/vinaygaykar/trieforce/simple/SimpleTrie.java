@@ -1,14 +1,11 @@
 package vinaygaykar.trieforce.simple;
 
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.function.BiFunction;
 
+import vinaygaykar.trieforce.CharTable;
 import vinaygaykar.trieforce.Trie;
 
 
@@ -66,80 +63,139 @@ public class SimpleTrie<V> extends Trie<V> {
 
 	@Override
 	public Optional<V> put(final String key, final V value) {
+		return Optional.ofNullable(putAndGetPrevious(key, value));
+	}
+
+	@Override
+	public V putAndGetPrevious(final String key, final V value) {
+		return putValue(key, value, false);
+	}
+
+	@Override
+	protected V putValue(final String key, final V value, final boolean onlyIfAbsent) {
 		validateKey(key);
 		validateValue(value);
 
+		// counts are incremented on the way down assuming the key is new, and restored if it is not
 		Node<V> current = root;
 		for (int i = 0; i < key.length(); ++i) {
-			current = current.children.computeIfAbsent(
-					key.charAt(i),
-					k -> {
-						nodes++;
-						return new Node<>();
-					}
-			);
+			final char ch = key.charAt(i);
+			Node<V> next = current.children.get(ch);
+
+			if (next == null) {
+				next = new Node<>();
+				nodes++;
+				current.children.put(ch, next);
+			}
+
+			current.count++;
+			current = next;
 		}
 
-		words++;
-		if (current.value == null) {
+		final V previous = current.value;
+		if (previous == null) {
 			current.value = value;
-			return Optional.empty();
-		} else return Optional.of(current.value);
+			current.count++;
+			words++;
+		} else {
+			if (!onlyIfAbsent) current.value = value;
+
+			Node<V> node = root;
+			for (int i = 0; i < key.length(); ++i) {
+				node.count--;
+				node = node.children.get(key.charAt(i));
+			}
+		}
+
+		return previous;
 	}
 
 	@Override
-	public Optional<V> get(final String key) {
+	protected V update(final String key,
+					   final boolean createIfAbsent,
+					   final BiFunction<String, ? super V, ? extends V> remappingFunction) {
 		validateKey(key);
 
-		return find(key).map(node -> node.value);
+		final long before = words;
+		try {
+			return update(root, key, 0, createIfAbsent, remappingFunction);
+		} finally {
+			root.count += words - before;
+		}
 	}
 
-	@Override
-	public List<String> getKeysWithPrefix(final String prefix,
-										  final Comparator<Character> comparator,
-										  final int count) {
-		validateKey(prefix);
-		if (count < 1)
-			throw new IllegalArgumentException("Count of values to return with prefix is not a positive number");
+	private V update(final Node<V> current,
+					 final String key,
+					 final int index,
+					 final boolean createIfAbsent,
+					 final BiFunction<String, ? super V, ? extends V> remappingFunction) {
+		if (index == key.length()) {
+			final V oldValue = current.value;
+			final V newValue = remappingFunction.apply(key, oldValue);
 
-		final Optional<Node<V>> nodeOpt = find(prefix);
-		if (!nodeOpt.isPresent())
-			return Collections.emptyList();
+			if (oldValue == null && newValue != null) words++;
+			else if (oldValue != null && newValue == null) words--;
 
-		final Node<V> node = nodeOpt.get();
-		final List<String> results = new ArrayList<>(count);
-		traverse(prefix, count, node, comparator, results);
+			current.value = newValue;
+			return newValue;
+		}
 
-		return results;
+		final char ch = key.charAt(index);
+		Node<V> node = current.children.get(ch);
+
+		if (node == null) {
+			if (!createIfAbsent) return null;
+
+			node = new Node<>();
+			nodes++;
+			current.children.put(ch, node);
+		}
+
+		final long before = words;
+		try {
+			return update(node, key, index + 1, createIfAbsent, remappingFunction);
+		} finally {
+			node.count += words - before;
+
+			// check if the `node` should be deleted, also when it was just created but the function threw
+			if (!node.isTerminal() && node.children.isEmpty()) {
+				current.children.remove(ch);
+				nodes--;
+			}
+		}
 	}
 
 	@Override
 	protected Optional<Node<V>> find(final String key) {
+		return Optional.ofNullable(findNode(key, 0, key.length()));
+	}
+
+	@Override
+	protected Node<V> findNode(final CharSequence key, final int from, final int to) {
 		Node<V> current = root;
-		for (int i = 0; i < key.length(); ++i) {
+		for (int i = from; i < to && current != null; ++i)
 			current = current.children.get(key.charAt(i));
 
-			if (current == null)
-				return Optional.empty();
-		}
+		return current;
+	}
 
-		return Optional.of(current);
+	@Override
+	protected Node<V> findNode(final char[] key, final int from, final int to) {
+		Node<V> current = root;
+		for (int i = from; i < to && current != null; ++i)
+			current = current.children.get(key[i]);
+
+		return current;
 	}
 
-	private void traverse(final String prefix,
-						  final int count,
-						  final Node<V> node,
-						  final Comparator<Character> keyComparator,
-						  final List<String> results) {
-		if (results.size() == count) return;
-		if (node.isTerminal()) results.add(prefix);
+	@Override
+	protected Node<V> findPrefix(final CharSequence prefix, final StringBuilder completion) {
+		return findNode(prefix, 0, prefix.length());
+	}
 
-		node.children.entrySet().stream()
-				.sorted((e1, e2) -> keyComparator.compare(e1.getKey(), e2.getKey()))
-				.forEachOrdered(entry -> {
-					if (results.size() <= count)
-						traverse(prefix + entry.getKey(), count, entry.getValue(), keyComparator, results);
-				});
+	@Override
+	protected Node<V> getRoot() {
+		return this.root;
 	}
 
 	@Override
@@ -154,9 +210,17 @@ public class SimpleTrie<V> extends Trie<V> {
 
 	@Override
 	public Optional<V> remove(final String key) {
+		return Optional.ofNullable(removeAndGetPrevious(key));
+	}
+
+	@Override
+	public V removeAndGetPrevious(final String key) {
 		validateKey(key);
 
-		return Optional.ofNullable(remove(root, key, 0));
+		final V val = remove(root, key, 0);
+		if (val != null) root.count--;
+
+		return val;
 	}
 
 	private V remove(final Node<V> current, final String key, final int index) {
@@ -175,6 +239,7 @@ public class SimpleTrie<V> extends Trie<V> {
 		if (node == null) return null;
 
 		final V val = remove(node, key, index + 1);
+		if (val != null) node.count--;
 
 		// check if the `node` should be deleted
 		if (!node.isTerminal() && node.children.isEmpty()) {
@@ -185,16 +250,122 @@ public class SimpleTrie<V> extends Trie<V> {
 		return val;
 	}
 
+
+	/**
+	 * Builds a {@link SimpleTrie} from keys given in increasing order, e.g. to load a large dictionary from a sorted
+	 * file.
+	 * <p>
+	 * Since every key is greater than the previous one, only the nodes along the path of the previous key can still
+	 * change; they are kept on a stack. A key starts from the node at the end of its common prefix with the previous
+	 * key and only creates the nodes of the rest of it, so no key is looked up from the root and the whole build
+	 * takes time linear in the total length of the keys.
+	 * <p>
+	 * Example Usage:
+	 * <pre>
+	 * final SimpleTrie&lt;Integer&gt; trie = new SimpleTrie.Builder&lt;Integer&gt;()
+	 * 		.add("HELLO", 1)
+	 * 		.add("HELP", 2)
+	 * 		.add("WORLD", 3)
+	 * 		.build();
+	 * </pre>
+	 *
+	 * @param <V> the type of the values that are stored
+	 */
+	public static final class Builder<V> {
+
+		private SimpleTrie<V> trie;
+
+		/**
+		 * Nodes along the path of the previous key, the root first, one per character.
+		 */
+		private Node<V>[] path;
+
+		private String previous;
+
+
+		@SuppressWarnings("unchecked")
+		public Builder() {
+			this.trie = new SimpleTrie<>();
+			this.path = (Node<V>[]) new Node<?>[16];
+			this.path[0] = trie.root;
+			this.previous = null;
+		}
+
+		/**
+		 * Adds a key with the associated value, the key must be greater than all the keys added before.
+		 *
+		 * @param key   the key to be added
+		 * @param value the associated value object
+		 *
+		 * @return this builder
+		 *
+		 * @throws IllegalArgumentException if the key is empty, or not greater than the previous key
+		 * @throws NullPointerException     if the key or value is <tt>null</tt>
+		 * @throws IllegalStateException    if the trie was already built
+		 */
+		public Builder<V> add(final String key, final V value) {
+			if (trie == null) throw new IllegalStateException("Trie was already built");
+			trie.validateKey(key);
+			trie.validateValue(value);
+
+			int common = 0;
+			if (previous != null) {
+				final int max = Math.min(key.length(), previous.length());
+				while (common < max && key.charAt(common) == previous.charAt(common)) common++;
+
+				if (common == key.length() || common < previous.length() && key.charAt(common) < previous.charAt(common))
+					throw new IllegalArgumentException("Key '" + key + "' is not greater than the previous key '" +
+							previous + "'");
+			}
+
+			if (key.length() >= path.length) path = Arrays.copyOf(path, Math.max(path.length * 2, key.length() + 1));
+			for (int i = 0; i <= common; ++i) path[i].count++;
+			for (int i = common; i < key.length(); ++i) {
+				final Node<V> node = new Node<>();
+				node.count = 1L;
+				path[i].children.put(key.charAt(i), node);
+				path[i + 1] = node;
+			}
+			path[key.length()].value = value;
+
+			trie.words++;
+			trie.nodes += key.length() - common;
+			previous = key;
+			return this;
+		}
+
+		/**
+		 * @return the trie holding all the added keys, after which this builder can not be used anymore
+		 *
+		 * @throws IllegalStateException if the trie was already built
+		 */
+		public SimpleTrie<V> build() {
+			if (trie == null) throw new IllegalStateException("Trie was already built");
+
+			final SimpleTrie<V> built = trie;
+			trie = null;
+			path = null;
+			return built;
+		}
+
+	}
+
 	protected static class Node<V> extends Trie.Node<V> {
 
-		private final Map<Character, Node<V>> children;
+		private final CharTable<Node<V>> children;
 
 		private V value;
 
+		/**
+		 * Number of keys ending at this node or under it.
+		 */
+		private long count;
+
 
 		private Node() {
-			this.children = new HashMap<>();
+			this.children = new CharTable<>();
 			this.value = null;
+			this.count = 0L;
 		}
 
 		@Override
@@ -207,6 +378,16 @@ public class SimpleTrie<V> extends Trie<V> {
 			return this.value != null;
 		}
 
+		@Override
+		protected CharTable<Node<V>> getChildren() {
+			return this.children;
+		}
+
+		@Override
+		protected long getCountOfKeys() {
+			return this.count;
+		}
+
 	}
 
 }
@@ -1,7 +1,14 @@
 package vinaygaykar;
 
 
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,6 +16,9 @@ import vinaygaykar.trieforce.compressed.CompressedTrie;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 class DictionaryTest {
@@ -65,4 +75,181 @@ class DictionaryTest {
 		assertFalse(trie.get("Hello").isPresent());
 	}
 
-}
\ No newline at end of file
+	@DisplayName("Validate `Optional` free variants of `get`, `put` & `remove`")
+	@Test
+	void optionalFreeVariants() {
+		// given
+		final Dictionary<Integer> trie = new CompressedTrie<>();
+
+		// when
+		final Integer noVal = trie.putAndGetPrevious("Hello", 1);
+		final Integer oldVal = trie.putAndGetPrevious("Hello", 2);
+
+		// then
+		assertNull(noVal);
+		assertEquals(1, oldVal);
+		assertEquals(2, trie.getOrDefault("Hello", Integer.MIN_VALUE));
+		assertEquals(Integer.MIN_VALUE, trie.getOrDefault("Hell", Integer.MIN_VALUE));
+		assertNull(trie.getOrDefault("World", null));
+		assertTrue(trie.containsKey("Hello"));
+		assertFalse(trie.containsKey("Hell"));
+		assertEquals(2, trie.removeAndGetPrevious("Hello"));
+		assertFalse(trie.containsKey("Hello"));
+		assertNull(trie.removeAndGetPrevious("Hello"));
+	}
+
+	@DisplayName("Validate `compute` functionality")
+	@Test
+	void compute() {
+		// given
+		final Dictionary<Integer> trie = new CompressedTrie<>();
+
+		// when
+		final Optional<Integer> newValOpt = trie.compute("Hello", (k, v) -> v == null ? 1 : v + 1);
+		final Optional<Integer> incValOpt = trie.compute("Hello", (k, v) -> v == null ? 1 : v + 1);
+		final Optional<Integer> noValOpt = trie.compute("World", (k, v) -> null);
+
+		// then
+		assertEquals(1, newValOpt.orElse(Integer.MIN_VALUE));
+		assertEquals(2, incValOpt.orElse(Integer.MIN_VALUE));
+		assertFalse(noValOpt.isPresent());
+		assertFalse(trie.containsKey("World"));
+
+		assertFalse(trie.compute("Hello", (k, v) -> null).isPresent());
+		assertFalse(trie.containsKey("Hello"));
+		assertEquals(0, trie.size());
+	}
+
+	@DisplayName("Validate `merge` functionality")
+	@Test
+	void merge() {
+		// given
+		final Dictionary<Integer> trie = new CompressedTrie<>();
+
+		// when
+		for (final String word : new String[]{ "to", "be", "or", "not", "to", "be" })
+			trie.merge(word, 1, Integer::sum);
+
+		// then
+		assertEquals(2, trie.get("to").orElse(Integer.MIN_VALUE));
+		assertEquals(2, trie.get("be").orElse(Integer.MIN_VALUE));
+		assertEquals(1, trie.get("or").orElse(Integer.MIN_VALUE));
+		assertEquals(4, trie.size());
+
+		assertFalse(trie.merge("to", 1, (a, b) -> null).isPresent());
+		assertFalse(trie.containsKey("to"));
+		assertThrows(NullPointerException.class, () -> trie.merge("to", null, Integer::sum));
+	}
+
+	@DisplayName("Lookups of `CharSequence` & `char[]` keys fall back to `get(String)` for other implementations")
+	@Test
+	void defaultLookups() {
+		// given
+		final Dictionary<Integer> dict = new MapDictionary<>();
+		dict.put("hello", 1);
+		dict.put("help", 2);
+
+		// then
+		assertEquals(Optional.of(1), dict.get(new StringBuilder("hello")));
+		assertEquals(Optional.of(2), dict.get(CharBuffer.wrap("a help!", 2, 6)));
+		assertEquals(Optional.of(2), dict.get("a help!".toCharArray(), 2, 4));
+		assertFalse(dict.get("a hel!".toCharArray(), 2, 3).isPresent());
+		assertEquals(2, dict.getOrDefault(new StringBuilder("help"), Integer.MIN_VALUE));
+
+		assertThrows(NullPointerException.class, () -> dict.get((CharSequence) null));
+		assertThrows(IllegalArgumentException.class, () -> dict.get(new StringBuilder()));
+		assertThrows(IllegalArgumentException.class, () -> dict.get(new char[2], 1, 0));
+		assertThrows(IndexOutOfBoundsException.class, () -> dict.get(new char[2], 1, 2));
+	}
+
+
+	@DisplayName("Order statistics fall back to walking `keys()` for other implementations")
+	@Test
+	void defaultOrderStatistics() {
+		// given
+		final Dictionary<Integer> dict = new MapDictionary<>();
+		for (final String key : new String[]{ "b", "ab", "abc", "z", "\u00e9t\u00e9", "a" }) dict.put(key, key.length());
+
+		// then
+		assertEquals(Arrays.asList("a", "ab", "abc", "b", "z", "\u00e9t\u00e9"), dict.keys().collect(Collectors.toList()));
+		assertEquals(0, dict.rank("a"));
+		assertEquals(3, dict.rank("abd"));
+		assertEquals(6, dict.rank("\uffff"));
+		assertEquals("abc", dict.select(2));
+		assertEquals("\u00e9t\u00e9", dict.select(5));
+		assertThrows(IndexOutOfBoundsException.class, () -> dict.select(6));
+		assertThrows(IndexOutOfBoundsException.class, () -> dict.select(-1));
+		assertEquals(Optional.of("abc"), dict.floorKey("abd"));
+		assertEquals(Arrays.asList("ab", "abc", "b"), dict.keysBetween("aa", "c").collect(Collectors.toList()));
+	}
+
+	@DisplayName("An implementation overriding `validateKey(String)` has it applied to `String` keys of every method")
+	@Test
+	void overriddenKeyValidation() {
+		// given
+		final Dictionary<Integer> trie = new CompressedTrie<Integer>() {
+			@Override
+			public void validateKey(final String key) {
+				super.validateKey(key);
+				if (key.indexOf(' ') >= 0) throw new IllegalArgumentException("Key has a space");
+			}
+		};
+
+		// then
+		assertThrows(IllegalArgumentException.class, () -> trie.put("a b", 1));
+		assertThrows(IllegalArgumentException.class, () -> trie.get("a b"));
+		assertThrows(IllegalArgumentException.class, () -> trie.containsKey("a b"));
+		assertThrows(IllegalArgumentException.class, () -> trie.getOrDefault("a b", 0));
+		assertFalse(trie.get(new StringBuilder("a b")).isPresent());
+	}
+
+	/**
+	 * A {@link Dictionary} only implementing the abstract methods, to check the default ones.
+	 */
+	private static final class MapDictionary<V> implements Dictionary<V> {
+
+		private final TreeMap<String, V> map = new TreeMap<>();
+
+
+		@Override
+		public Optional<V> put(final String key, final V value) {
+			validateKey(key);
+			validateValue(value);
+			return Optional.ofNullable(map.put(key, value));
+		}
+
+		@Override
+		public Optional<V> get(final String key) {
+			validateKey(key);
+			return Optional.ofNullable(map.get(key));
+		}
+
+		@Override
+		public List<String> getKeysWithPrefix(final String prefix,
+											  final Comparator<Character> comparator,
+											  final int count) {
+			return map.keySet().stream()
+					.filter(key -> key.startsWith(prefix))
+					.limit(count)
+					.collect(Collectors.toList());
+		}
+
+		@Override
+		public Stream<String> keys() {
+			return map.keySet().stream();
+		}
+
+		@Override
+		public Optional<V> remove(final String key) {
+			validateKey(key);
+			return Optional.ofNullable(map.remove(key));
+		}
+
+		@Override
+		public long size() {
+			return map.size();
+		}
+
+	}
+
+}
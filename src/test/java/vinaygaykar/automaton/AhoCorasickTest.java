@@ -0,0 +1,97 @@
+package vinaygaykar.automaton;
+
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vinaygaykar.Dictionary;
+import vinaygaykar.trieforce.compressed.CompressedTrie;
+import vinaygaykar.trieforce.simple.SimpleTrie;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class AhoCorasickTest {
+
+	@DisplayName("All occurrences are reported, overlapping ones & ones ending at the same position included")
+	@Test
+	void testScan() {
+		// given
+		final Dictionary<Integer> dictionary = new CompressedTrie<>();
+		dictionary.put("he", 1);
+		dictionary.put("she", 2);
+		dictionary.put("his", 3);
+		dictionary.put("hers", 4);
+		final AhoCorasick<Integer> automaton = AhoCorasick.compile(dictionary);
+
+		// when
+		final List<String> matches = new ArrayList<>();
+		automaton.scan("ushers & his", (position, key, value) -> matches.add(position + ":" + key + "=" + value));
+
+		// then
+		assertEquals(4, automaton.size());
+		assertEquals(Arrays.asList("1:she=2", "2:he=1", "2:hers=4", "9:his=3"), matches);
+		assertThrows(NullPointerException.class, () -> automaton.scan((CharSequence) null, (p, k, v) -> { }));
+		assertThrows(NullPointerException.class, () -> AhoCorasick.compile(null));
+	}
+
+	@DisplayName("Scanning a text or a reader agrees with searching for every key at every position")
+	@Test
+	void testScanAgreesWithNaiveSearch() throws IOException {
+		// given
+		final Dictionary<Integer> dictionary = new SimpleTrie<>();
+		final Random random = new Random(5);
+		for (int i = 0; i < 300; ++i) {
+			final StringBuilder sb = new StringBuilder();
+			for (int j = 1 + random.nextInt(5); j > 0; --j) sb.append((char) ('a' + random.nextInt(4)));
+			dictionary.put(sb.toString(), i);
+		}
+		final StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 20_000; ++i) text.append((char) ('a' + random.nextInt(5)));
+
+		final List<String> expected = new ArrayList<>();
+		for (int end = 1; end <= text.length(); ++end)
+			for (int start = Math.max(0, end - 5); start < end; ++start) {
+				final String key = text.substring(start, end);
+				dictionary.get(key).ifPresent(value -> expected.add(key + "=" + value));
+			}
+
+		final AhoCorasick<Integer> automaton = AhoCorasick.compile(dictionary);
+
+		// when
+		final List<String> fromText = new ArrayList<>();
+		automaton.scan(text, (position, key, value) -> {
+			assertEquals(key, text.substring((int) position, (int) position + key.length()));
+			fromText.add(key + "=" + value);
+		});
+		final List<String> fromReader = new ArrayList<>();
+		automaton.scan(new StringReader(text.toString()), (position, key, value) -> fromReader.add(key + "=" + value));
+
+		// then
+		assertEquals(expected, fromText);
+		assertEquals(expected, fromReader);
+	}
+
+	@DisplayName("An automaton of an empty dictionary matches nothing")
+	@Test
+	void testEmptyDictionary() {
+		// given
+		final AhoCorasick<Integer> automaton = AhoCorasick.compile(new CompressedTrie<>());
+
+		// when
+		final List<String> matches = new ArrayList<>();
+		automaton.scan("anything", (position, key, value) -> matches.add(key));
+
+		// then
+		assertEquals(0, automaton.size());
+		assertEquals(0, matches.size());
+	}
+
+}
@@ -0,0 +1,90 @@
+package vinaygaykar.automaton;
+
+
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class RegexAutomatonTest {
+
+	@DisplayName("The supported syntax matches like java.util.regex does")
+	@Test
+	void testMatches() {
+		// given
+		final RegexAutomaton automaton = RegexAutomaton.compile("(ab|c)+[^x-z]?\\d{2,3}");
+
+		// then
+		assertTrue(automaton.matches("ab12"));
+		assertTrue(automaton.matches("cabcw123"));
+		assertFalse(automaton.matches("ab1"));
+		assertFalse(automaton.matches("abx12"));
+		assertFalse(automaton.matches("12"));
+		assertTrue(RegexAutomaton.compile("a.c").matches("a€c"));
+		assertTrue(RegexAutomaton.compile("\\w+\\s\\W").matches("w_1 !"));
+		assertTrue(RegexAutomaton.compile("(?:a|)b{0}").matches(""));
+		assertTrue(RegexAutomaton.compile("[\\]\\-]\\.").matches("-."));
+
+		assertThrows(PatternSyntaxException.class, () -> RegexAutomaton.compile("(a"));
+		assertThrows(PatternSyntaxException.class, () -> RegexAutomaton.compile("a)"));
+		assertThrows(PatternSyntaxException.class, () -> RegexAutomaton.compile("[a"));
+		assertThrows(PatternSyntaxException.class, () -> RegexAutomaton.compile("*a"));
+		assertThrows(PatternSyntaxException.class, () -> RegexAutomaton.compile("a{3,2}"));
+		assertThrows(PatternSyntaxException.class, () -> RegexAutomaton.compile("^a$"));
+		assertThrows(NullPointerException.class, () -> RegexAutomaton.compile(null));
+	}
+
+	@DisplayName("Stepping reaches the dead state as soon as no completion can match, and tells the only next character")
+	@Test
+	void testStep() {
+		// given
+		final RegexAutomaton automaton = RegexAutomaton.compile("ab[cd]");
+
+		// when
+		final int a = automaton.step(automaton.start(), 'a');
+		final int ab = automaton.step(a, 'b');
+
+		// then
+		assertEquals('a', automaton.nextChar(automaton.start()));
+		assertEquals('b', automaton.nextChar(a));
+		assertEquals(RegexAutomaton.MANY, automaton.nextChar(ab));
+		assertEquals(RegexAutomaton.DEAD, automaton.step(automaton.start(), 'b'));
+		assertFalse(automaton.accepts(ab));
+		assertTrue(automaton.accepts(automaton.step(ab, 'd')));
+		assertEquals(RegexAutomaton.NONE, automaton.nextChar(automaton.step(ab, 'd')));
+	}
+
+	@DisplayName("Random expressions on random strings agree with java.util.regex")
+	@Test
+	void testAgreesWithPattern() {
+		// given
+		final String[] atoms = {"a", "b", "c", ".", "[ab]", "[^a]", "(a|bc)", "(b|)", "a*", "b+", "c?", "[a-c]{2}",
+				"(ab){1,2}", "(a|b)*c"};
+		final Random random = new Random(13);
+
+		for (int i = 0; i < 500; ++i) {
+			// when
+			final StringBuilder regex = new StringBuilder();
+			for (int j = 1 + random.nextInt(5); j > 0; --j)
+				regex.append(atoms[random.nextInt(atoms.length)]);
+			final RegexAutomaton automaton = RegexAutomaton.compile(regex.toString());
+			final Pattern pattern = Pattern.compile(regex.toString());
+
+			// then
+			for (int j = 0; j < 50; ++j) {
+				final StringBuilder text = new StringBuilder();
+				for (int k = random.nextInt(8); k > 0; --k) text.append("abcd".charAt(random.nextInt(4)));
+				assertEquals(pattern.matcher(text).matches(), automaton.matches(text), regex + " on " + text);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,173 @@
+package vinaygaykar.trieforce;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class CharTableTest {
+
+	@DisplayName("Basic `put()`, `get()` & `remove()` functionality test")
+	@Test
+	void testPutGetRemove() {
+		// given
+		final CharTable<String> table = new CharTable<>();
+
+		// when
+		assertNull(table.put('b', "B"));
+		assertNull(table.put('a', "A"));
+		assertEquals("B", table.put('b', "BB"));
+
+		// then
+		assertEquals(2, table.size());
+		assertEquals("A", table.get('a'));
+		assertEquals("BB", table.get('b'));
+		assertNull(table.get('c'));
+
+		assertEquals("A", table.remove('a'));
+		assertNull(table.remove('a'));
+		assertEquals(1, table.size());
+		assertFalse(table.isEmpty());
+
+		assertThrows(NullPointerException.class, () -> table.put('z', null));
+	}
+
+	@DisplayName("Children are iterated in natural order of keys, whatever the layout")
+	@Test
+	void testOrderedIteration() {
+		// given
+		final CharTable<Character> table = new CharTable<>();
+		final TreeMap<Character, Character> expected = new TreeMap<>();
+		final Random random = new Random(42);
+
+		// when, a mix of sparse and packed keys so that the table switches between layouts
+		for (int i = 0; i < 500; ++i) {
+			final char key = (char) (random.nextBoolean() ? 'a' + random.nextInt(60) : random.nextInt(4096));
+			if (random.nextInt(4) == 0) assertEquals(expected.remove(key), table.remove(key));
+			else assertEquals(expected.put(key, key), table.put(key, key));
+
+			// then
+			assertEquals(expected.size(), table.size());
+			assertEquals(new ArrayList<>(expected.keySet()), forward(table));
+			final List<Character> reverse = new ArrayList<>(expected.descendingKeySet());
+			assertEquals(reverse, backward(table));
+		}
+	}
+
+	@DisplayName("Table grows through every layout and shrinks back while still behaving like a map")
+	@Test
+	void testAdaptiveLayouts() {
+		// given
+		final CharTable<Integer> table = new CharTable<>();
+
+		// when
+		for (char ch = 'a'; ch <= 'z'; ++ch) table.put(ch, (int) ch);
+		for (char ch = 'A'; ch <= 'Z'; ++ch) table.put(ch, (int) ch);
+
+		// then
+		assertEquals(52, table.size());
+		assertEquals('A', table.keyAt(table.first()));
+		assertEquals('z', table.keyAt(table.last()));
+		for (char ch = 'A'; ch <= 'z'; ++ch)
+			assertEquals(Character.isLetter(ch) ? Integer.valueOf(ch) : null, table.get(ch));
+
+		for (char ch = 'a'; ch <= 'z'; ++ch) table.remove(ch);
+		assertEquals(26, table.size());
+		assertTrue(forward(table).stream().allMatch(Character::isUpperCase));
+
+		// a key outside of the window of the indexed layout
+		table.put('\u4e2d', 0);
+		assertEquals(27, table.size());
+		assertEquals('\u4e2d', table.keyAt(table.last()));
+		assertEquals(Integer.valueOf('Q'), table.get('Q'));
+
+		for (char ch = 'A'; ch <= 'Z'; ++ch) table.remove(ch);
+		assertEquals(1, table.size());
+		assertEquals(0, table.get('\u4e2d'));
+	}
+
+	@DisplayName("Table behaves like a map across layout transitions in both directions")
+	@Test
+	void testLayoutTransitions() {
+		// given
+		final CharTable<Integer> table = new CharTable<>();
+		final TreeMap<Character, Integer> expected = new TreeMap<>();
+
+		// when, grow one child at a time up to a full window then shrink back
+		for (int i = 0; i < CharTable.WINDOW; ++i) {
+			final char key = (char) (1000 + (i * 37) % CharTable.WINDOW);
+			assertEquals(expected.put(key, i), table.put(key, i));
+			assertEquals(expected.get(key), table.get(key));
+		}
+		assertEquals(new ArrayList<>(expected.keySet()), forward(table));
+
+		for (int i = 0; i < CharTable.WINDOW; ++i) {
+			final char key = (char) (1000 + (i * 101) % CharTable.WINDOW);
+			assertEquals(expected.remove(key), table.remove(key));
+			assertNull(table.get(key));
+
+			// then
+			assertEquals(expected.size(), table.size());
+			assertEquals(new ArrayList<>(expected.keySet()), forward(table));
+		}
+		assertTrue(table.isEmpty());
+		assertEquals(-1, table.first());
+	}
+
+	@DisplayName("A sorted table holding more children than the indexed layout fits goes back to the direct layout")
+	@Test
+	void testSortedPastIndexedMax() {
+		// given
+		final CharTable<Integer> table = new CharTable<>();
+		final TreeMap<Character, Integer> expected = new TreeMap<>();
+		for (char ch = 'a'; ch < 'a' + CharTable.INDEXED_MAX + 12; ++ch) {
+			table.put(ch, (int) ch);
+			expected.put(ch, (int) ch);
+		}
+
+		// when
+		// a key outside of the window turns the direct table sorted, it stays sorted once the key is removed
+		table.put('\u4e00', 0);
+		assertEquals(0, table.remove('\u4e00'));
+		final char key = (char) ('a' + CharTable.INDEXED_MAX + 12);
+		table.put(key, (int) key);
+		expected.put(key, (int) key);
+
+		// then
+		assertEquals(expected.size(), table.size());
+		assertEquals(new ArrayList<>(expected.keySet()), forward(table));
+		for (final char ch : expected.keySet()) assertEquals(expected.get(ch), table.get(ch));
+
+		for (char ch = 'a'; ch < 'a' + CharTable.INDEXED_MAX; ++ch) {
+			assertEquals(expected.remove(ch), table.remove(ch));
+			assertEquals(new ArrayList<>(expected.keySet()), forward(table));
+		}
+		assertEquals(expected.size(), table.size());
+	}
+
+	private static <N> List<Character> forward(final CharTable<N> table) {
+		final List<Character> keys = new ArrayList<>();
+		for (int pos = table.first(); pos >= 0; pos = table.next(pos))
+			keys.add(table.keyAt(pos));
+		return keys;
+	}
+
+	private static <N> List<Character> backward(final CharTable<N> table) {
+		final List<Character> keys = new ArrayList<>();
+		for (int pos = table.last(); pos >= 0; pos = table.prev(pos))
+			keys.add(table.keyAt(pos));
+		return keys;
+	}
+
+}
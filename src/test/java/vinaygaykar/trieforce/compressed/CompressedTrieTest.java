@@ -1,16 +1,38 @@
 package vinaygaykar.trieforce.compressed;
 
 
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
-
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import vinaygaykar.CharComparator;
+import vinaygaykar.trieforce.TrieCursor;
+import vinaygaykar.trieforce.TrieVisitor;
 import vinaygaykar.trieforce.simple.SimpleTrie;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -98,6 +120,683 @@ class CompressedTrieTest {
 		assertTrue(trie.getKeysWithPrefix("foo", 10).isEmpty());
 	}
 
+	@DisplayName("`getKeysWithPrefix()` visits children in the order of a custom comparator, boxed or not")
+	@Test
+	void testGetKeysWithPrefixInCustomOrder() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		final List<String> words = new ArrayList<>();
+		for (char ch = '0'; ch <= 'z'; ++ch)
+			if (Character.isLetterOrDigit(ch)) words.add("key" + ch);
+		words.add("keyB1");
+		words.add("keyb1");
+		words.forEach(word -> trie.put(word, word.length()));
+
+		final CharComparator caseInsensitive = (a, b) -> {
+			final int cmp = Character.compare(Character.toLowerCase(a), Character.toLowerCase(b));
+			return cmp != 0 ? cmp : Character.compare(a, b);
+		};
+
+		// when
+		final List<String> primitive = trie.getKeysWithPrefix("key", caseInsensitive, words.size());
+		final List<String> boxed = trie.getKeysWithPrefix("k", (a, b) -> caseInsensitive.compare(a, b), words.size());
+		final List<String> reverse = trie.getKeysWithPrefix("ke", CharComparator.reverseOrder(), words.size());
+
+		// then
+		// keys are ordered character by character
+		final List<String> expected = new ArrayList<>(words);
+		expected.sort((a, b) -> {
+			for (int i = 0; i < Math.min(a.length(), b.length()); ++i) {
+				final int cmp = caseInsensitive.compareChars(a.charAt(i), b.charAt(i));
+				if (cmp != 0) return cmp;
+			}
+			return Integer.compare(a.length(), b.length());
+		});
+		assertEquals(expected, primitive);
+		assertEquals(expected, boxed);
+		assertEquals(Arrays.asList("keyz", "keyZ", "keyy"), trie.getKeysWithPrefix("key", caseInsensitive.reversed(), 3));
+
+		// a key is returned before the keys it is a prefix of
+		assertEquals(Arrays.asList("keyb", "keyb1", "keya"), reverse.subList(24, 27));
+		assertEquals(trie.getKeysWithPrefix("ke", Comparator.reverseOrder(), words.size()), reverse);
+		assertThrows(NullPointerException.class, () -> trie.getKeysWithPrefix("key", (Comparator<Character>) null, 1));
+	}
+
+	@DisplayName("`getKeysWithPrefix()` stops the traversal as soon as enough keys are collected")
+	@Test
+	void testGetKeysWithPrefixStopsEarly() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		trie.put("ab", 1);
+		for (char ch = 'a'; ch <= 'z'; ++ch)
+			trie.put("b" + ch, 2);
+
+		final int[] comparisons = { 0 };
+		final CharComparator counting = (a, b) -> {
+			comparisons[0]++;
+			return Character.compare(a, b);
+		};
+
+		// when
+		final List<String> keys = trie.getKeysWithPrefix("a", counting, 1);
+		final List<String> others = trie.getKeysWithPrefix("b", counting, 1);
+
+		// then, the children of `b` were never sorted by the first query
+		assertEquals(Collections.singletonList("ab"), keys);
+		assertEquals(Collections.singletonList("ba"), others);
+		comparisons[0] = 0;
+		trie.getKeysWithPrefix("ab", counting, 1);
+		assertEquals(0, comparisons[0]);
+	}
+
+	@DisplayName("Keys with a prefix can be iterated & streamed lazily, in lexicographical order")
+	@Test
+	void testKeysWithPrefixIterator() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final Random random = new Random(7);
+		for (int i = 0; i < 2_000; ++i) {
+			final StringBuilder sb = new StringBuilder();
+			for (int j = 1 + random.nextInt(8); j > 0; --j) sb.append((char) ('a' + random.nextInt(4)));
+			trie.put(sb.toString(), i);
+			expected.put(sb.toString(), i);
+		}
+
+		// when
+		for (final String prefix : new String[]{ "a", "ab", "abcd", "dddd", "bacdbacd" }) {
+			final List<String> keys = new ArrayList<>();
+			trie.keysWithPrefixIterator(prefix).forEachRemaining(keys::add);
+
+			// then
+			assertEquals(new ArrayList<>(expected.subMap(prefix, prefix + Character.MAX_VALUE).keySet()), keys);
+			assertEquals(keys, trie.getKeysWithPrefix(prefix, Integer.MAX_VALUE));
+			assertEquals(keys.subList(0, Math.min(5, keys.size())),
+					trie.keysWithPrefix(prefix).limit(5).collect(Collectors.toList()));
+		}
+
+		final Iterator<String> none = trie.keysWithPrefixIterator("e");
+		assertFalse(none.hasNext());
+		assertThrows(NoSuchElementException.class, none::next);
+		assertThrows(IllegalArgumentException.class, () -> trie.keysWithPrefix(""));
+	}
+
+	@DisplayName("Streams of keys with a prefix split at child boundaries and can be made parallel")
+	@Test
+	void testKeysWithPrefixParallel() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		final Random random = new Random(11);
+		for (int i = 0; i < 20_000; ++i) {
+			final StringBuilder sb = new StringBuilder("pre");
+			for (int j = random.nextInt(6); j > 0; --j) sb.append((char) ('a' + random.nextInt(20)));
+			trie.put(sb.toString(), i);
+		}
+		final List<String> expected = trie.getKeysWithPrefix("p", Integer.MAX_VALUE);
+
+		// when
+		final List<String> parallel = trie.keysWithPrefix("p").parallel().collect(Collectors.toList());
+		final List<String> split = new ArrayList<>();
+		splitFully(trie.keysWithPrefix("pr").spliterator(), split);
+
+		// then
+		assertEquals(expected, parallel);
+		assertEquals(expected, split);
+		assertEquals(trie.keysWithPrefix("prea").count(), trie.keysWithPrefix("prea").parallel().count());
+		assertEquals(Collections.singletonList("pre"), trie.keysWithPrefix("pre").limit(1).collect(Collectors.toList()));
+	}
+
+	@DisplayName("Entries with a prefix carry the values of their keys")
+	@Test
+	void testEntriesWithPrefix() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		trie.put("ABC", 1);
+		trie.put("ABD", 2);
+		trie.put("ACE", 3);
+		trie.put("ACID", 4);
+		trie.put("ADIEU", 5);
+
+		// when
+		final List<Map.Entry<String, Integer>> entries = trie.entriesWithPrefix("AC").collect(Collectors.toList());
+
+		// then
+		assertEquals(Arrays.asList(new AbstractMap.SimpleImmutableEntry<>("ACE", 3),
+				new AbstractMap.SimpleImmutableEntry<>("ACID", 4)), entries);
+		assertEquals(15, trie.entriesWithPrefix("A").mapToInt(Map.Entry::getValue).sum());
+		assertEquals(0, trie.entriesWithPrefix("B").count());
+	}
+
+	@DisplayName("Visitor sees every key with its value, can prune subtrees & stop, without allocating per node")
+	@Test
+	void testVisit() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		for (int i = 0; i < 1_000; ++i)
+			trie.put(Integer.toString(i, 4), i);
+
+		// when
+		final List<String> keys = new ArrayList<>();
+		trie.visit("1", (path, value) -> {
+			if (path.length() > 1 && path.charAt(1) == '2') return TrieVisitor.Action.SKIP_SUBTREE;
+			if (value != null) {
+				assertEquals(Integer.toString(value, 4), path.toString());
+				keys.add(path.toString());
+			}
+			return keys.size() == 50 ? TrieVisitor.Action.TERMINATE : TrieVisitor.Action.CONTINUE;
+		});
+
+		final long[] sum = { 0 };
+		final TrieVisitor<Integer> summing = (path, value) -> {
+			if (value != null) sum[0] += value;
+			return TrieVisitor.Action.CONTINUE;
+		};
+		final long allocated = allocatedBytes(() -> trie.visit(summing));
+
+		// then
+		final List<String> expected = trie.keysWithPrefix("1")
+				.filter(key -> key.length() == 1 || key.charAt(1) != '2')
+				.limit(50)
+				.collect(Collectors.toList());
+		assertEquals(expected, keys);
+		assertEquals(999 * 1_000 / 2, sum[0]);
+		assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+		assertThrows(NullPointerException.class, () -> trie.visit("1", null));
+	}
+
+	@DisplayName("Count of keys with a prefix is kept up to date by every kind of write")
+	@Test
+	void testCountKeysWithPrefix() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final Random random = new Random(3);
+
+		for (int i = 0; i < 5_000; ++i) {
+			final StringBuilder sb = new StringBuilder();
+			for (int j = 1 + random.nextInt(6); j > 0; --j) sb.append((char) ('a' + random.nextInt(3)));
+			final String key = sb.toString();
+
+			// when
+			switch (random.nextInt(4)) {
+				case 0:
+					assertEquals(expected.remove(key), trie.removeAndGetPrevious(key));
+					break;
+				case 1:
+					assertEquals(expected.merge(key, 1, (a, b) -> a + b > 3 ? null : a + b),
+							trie.merge(key, 1, (a, b) -> a + b > 3 ? null : a + b).orElse(null));
+					break;
+				default:
+					assertEquals(expected.put(key, i), trie.putAndGetPrevious(key, i));
+			}
+
+			// then
+			final String prefix = key.substring(0, 1 + random.nextInt(key.length()));
+			final int count = expected.subMap(prefix, prefix + Character.MAX_VALUE).size();
+			assertEquals(count, trie.countKeysWithPrefix(prefix));
+			assertEquals(count, trie.keysWithPrefix(prefix).spliterator().getExactSizeIfKnown());
+		}
+		assertEquals(0, trie.countKeysWithPrefix("d"));
+	}
+
+	@DisplayName("`rank()` & `select()` agree with the sorted list of all keys")
+	@Test
+	void testRankAndSelect() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final Random random = new Random(5);
+		for (int i = 0; i < 3_000; ++i) {
+			final StringBuilder sb = new StringBuilder();
+			for (int j = 1 + random.nextInt(7); j > 0; --j) sb.append((char) ('a' + random.nextInt(4)));
+			trie.put(sb.toString(), i);
+			expected.put(sb.toString(), i);
+		}
+		final List<String> keys = new ArrayList<>(expected.keySet());
+
+		// then
+		assertEquals(keys, trie.keys().collect(Collectors.toList()));
+
+		// when
+		for (int i = 0; i < keys.size(); i += 7) {
+			// then
+			assertEquals(keys.get(i), trie.select(i));
+			assertEquals(i, trie.rank(keys.get(i)));
+		}
+		for (final String key : new String[]{ "a", "aaaaaaaa", "abcx", "b", "ddddddddd", "e", "\u0000" })
+			assertEquals(expected.headMap(key).size(), trie.rank(key));
+
+		assertEquals(keys.get(keys.size() - 1), trie.select(trie.size() - 1));
+		assertThrows(IndexOutOfBoundsException.class, () -> trie.select(-1));
+		assertThrows(IndexOutOfBoundsException.class, () -> trie.select(trie.size()));
+	}
+
+	@DisplayName("Keys with a prefix can be paged through by passing the last key of the previous page")
+	@Test
+	void testGetKeysWithPrefixAfterKey() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		for (int i = 0; i < 1_000; ++i)
+			trie.put(String.format("page%03d", i), i);
+		trie.put("pag", -1);
+		trie.put("pagf", -1);
+		trie.put("pagz", -1);
+
+		// when
+		final List<String> pages = new ArrayList<>();
+		List<String> page = trie.getKeysWithPrefix("page", 30);
+		while (!page.isEmpty()) {
+			pages.addAll(page);
+			page = trie.getKeysWithPrefix("page", page.get(page.size() - 1), 30);
+		}
+
+		// then
+		assertEquals(trie.getKeysWithPrefix("page", Integer.MAX_VALUE), pages);
+		assertEquals(Arrays.asList("page500", "page501"), trie.getKeysWithPrefix("page", "page4999", 2));
+		assertEquals(Arrays.asList("page500", "page501"), trie.getKeysWithPrefix("page", "page5", 2));
+		assertEquals(Arrays.asList("page000", "page001"), trie.getKeysWithPrefix("page", "pag", 2));
+		assertEquals(Arrays.asList("page000", "page001"), trie.getKeysWithPrefix("page", "a", 2));
+		assertEquals(Arrays.asList("pag", "page000"), trie.getKeysWithPrefix("pag", "p", 2));
+		assertEquals(Arrays.asList("pagf", "pagz"), trie.getKeysWithPrefix("pag", "page999", 2));
+		assertTrue(trie.getKeysWithPrefix("page", "pagf", 2).isEmpty());
+		assertTrue(trie.getKeysWithPrefix("page", "page999", 2).isEmpty());
+		assertThrows(NullPointerException.class, () -> trie.getKeysWithPrefix("page", (String) null, 2));
+	}
+
+	@DisplayName("Navigation & range queries agree with a `TreeMap` of the same keys")
+	@Test
+	void testNavigation() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		assertFalse(trie.firstKey().isPresent());
+		assertFalse(trie.lastKey().isPresent());
+		assertFalse(trie.floorKey("a").isPresent());
+
+		final Random random = new Random(9);
+		for (int i = 0; i < 2_000; ++i) {
+			final String key = "v" + random.nextInt(100) + "/" + random.nextInt(1_000);
+			trie.put(key, i);
+			expected.put(key, i);
+		}
+
+		// when
+		for (int i = 0; i < 500; ++i) {
+			final String key = "v" + random.nextInt(120) + (random.nextBoolean() ? "/" + random.nextInt(1_200) : "");
+
+			// then
+			assertEquals(Optional.ofNullable(expected.floorKey(key)), trie.floorKey(key), "floor of " + key);
+			assertEquals(Optional.ofNullable(expected.ceilingKey(key)), trie.ceilingKey(key), "ceiling of " + key);
+		}
+		assertEquals(Optional.of(expected.firstKey()), trie.firstKey());
+		assertEquals(Optional.of(expected.lastKey()), trie.lastKey());
+		assertEquals(new ArrayList<>(expected.subMap("v12/", "v13").keySet()),
+				trie.keysBetween("v12/", "v13").collect(Collectors.toList()));
+		assertEquals(new ArrayList<>(expected.subMap("a", "v2").keySet()),
+				trie.keysBetween("a", "v2").collect(Collectors.toList()));
+		assertEquals(0, trie.keysBetween("v5", "v5").count());
+		assertEquals(Optional.empty(), trie.floorKey("a"));
+		assertEquals(Optional.empty(), trie.ceilingKey("w"));
+		assertThrows(IllegalArgumentException.class, () -> trie.keysBetween("v2", "v1"));
+	}
+
+	@DisplayName("Cursor follows typed characters, including inside compressed nodes, and completes from where it is")
+	@Test
+	void testCursor() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final Random random = new Random(21);
+		for (int i = 0; i < 2_000; ++i) {
+			final String key = "q" + Integer.toString(random.nextInt(1 << 20), 36);
+			trie.put(key, i);
+			expected.put(key, i);
+		}
+		final TrieCursor<Integer> cursor = trie.cursor();
+		assertThrows(IllegalArgumentException.class, () -> cursor.completions(0));
+		assertFalse(cursor.retreat());
+
+		// when
+		for (int i = 0; i < 2_000; ++i) {
+			if (cursor.prefix().isEmpty() || random.nextInt(3) > 0) {
+				final char ch = i % 50 == 0 ? '#' : Character.forDigit(random.nextInt(36), 36);
+				assertEquals(!expected.subMap(cursor.prefix() + ch, cursor.prefix() + ch + Character.MAX_VALUE)
+						.isEmpty(), cursor.advance(ch));
+				if (random.nextInt(100) == 0) cursor.reset();
+			} else assertTrue(cursor.retreat());
+
+			// then
+			final String prefix = cursor.prefix();
+			final List<String> completions = expected.subMap(prefix, prefix + Character.MAX_VALUE).keySet().stream()
+					.limit(5)
+					.collect(Collectors.toList());
+			assertEquals(completions, cursor.completions(5), "Completions of " + prefix);
+			assertEquals(prefix.isEmpty() || !completions.isEmpty(), cursor.matches());
+			assertEquals(Optional.ofNullable(expected.get(prefix)), cursor.get(), "Value of " + prefix);
+		}
+	}
+
+	@DisplayName("Keys which are prefixes of an input are found in a single walk, also when it ends inside a node")
+	@Test
+	void testLongestPrefixOf() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		trie.put("/api", 1);
+		trie.put("/api/users", 2);
+		trie.put("/api/users/admin", 3);
+		trie.put("/static", 4);
+
+		// then
+		assertEquals(Optional.of("/api/users"), trie.longestPrefixOf("/api/users/42"));
+		assertEquals(Optional.of("/api/users"), trie.longestPrefixOf(new StringBuilder("/api/users/adm")));
+		assertEquals(Optional.of("/api/users/admin"), trie.longestPrefixOf("/api/users/admin"));
+		assertEquals(Optional.of("/api"), trie.longestPrefixOf("/api/user"));
+		assertEquals(Optional.empty(), trie.longestPrefixOf("/ap"));
+		assertEquals(Optional.empty(), trie.longestPrefixOf("/stat/ic"));
+		assertEquals(Arrays.asList("/api", "/api/users", "/api/users/admin"), trie.prefixesOf("/api/users/admins"));
+		assertEquals(Collections.singletonList("/static"), trie.prefixesOf("/static/app.js"));
+		assertTrue(trie.prefixesOf("api").isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> trie.longestPrefixOf(""));
+		assertThrows(NullPointerException.class, () -> trie.prefixesOf(null));
+	}
+
+	@DisplayName("Fuzzy search returns the keys within the edits, closest first, agreeing with a brute-force scan")
+	@Test
+	void testFuzzySearch() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		trie.put("HELLO", 1);
+		trie.put("HELP", 2);
+		trie.put("HALO", 3);
+		trie.put("WORLD", 4);
+		trie.put("HELO", 5);
+
+		// then
+		assertEquals(Arrays.asList("HELO", "HALO", "HELLO", "HELP"), trie.fuzzySearch("HELO", 1, 10));
+		assertEquals(Arrays.asList("HELO", "HALO"), trie.fuzzySearch("HELO", 2, 2));
+		assertEquals(Collections.singletonList("HELO"), trie.fuzzySearch("HELO", 0, 10));
+		assertEquals(Collections.singletonList("WORLD"), trie.fuzzySearch("WRLDD", 2, 10));
+		assertThrows(IllegalArgumentException.class, () -> trie.fuzzySearch("HELO", -1, 10));
+		assertThrows(IllegalArgumentException.class, () -> trie.fuzzySearch("HELO", 1, 0));
+		assertThrows(IllegalArgumentException.class, () -> trie.fuzzySearch("", 1, 10));
+
+		// when
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final Random random = new Random(31);
+		for (int i = 0; i < 3_000; ++i) {
+			final String key = Integer.toString(random.nextInt(50_000), 7);
+			trie.put(key, i);
+			expected.put(key, i);
+		}
+		for (final String key : Arrays.asList("HELLO", "HELP", "HALO", "WORLD", "HELO"))
+			expected.put(key, 0);
+
+		// then
+		for (int i = 0; i < 200; ++i) {
+			final String term = Integer.toString(random.nextInt(50_000), 7);
+			final int maxEdits = i % 3;
+			final List<String> brute = expected.keySet().stream()
+					.filter(key -> editDistance(key, term) <= maxEdits)
+					.sorted(Comparator.comparingInt((String key) -> editDistance(key, term)))
+					.limit(7)
+					.collect(Collectors.toList());
+			assertEquals(brute, trie.fuzzySearch(term, maxEdits, 7), "Fuzzy search of " + term);
+		}
+	}
+
+	@DisplayName("Keys matching a wildcard pattern agree with a regular expression, compressed nodes included")
+	@Test
+	void testGetKeysMatching() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		for (final String key : Arrays.asList("BAT", "BOAT", "BOOT", "BOOST", "COAT"))
+			trie.put(key, key.length());
+
+		// then
+		assertEquals(Collections.singletonList("BAT"), trie.getKeysMatching("B?T", 10));
+		assertEquals(Arrays.asList("BOAT", "COAT"), trie.getKeysMatching("*OAT", 10));
+		assertEquals(Arrays.asList("BOOST", "BOOT"), trie.getKeysMatching("BO*O*T", 10));
+		assertEquals(Arrays.asList("BAT", "BOAT"), trie.getKeysMatching("*", 2));
+		assertEquals(Collections.singletonList("BOOT"), trie.getKeysMatching("BOOT", 10));
+		assertTrue(trie.getKeysMatching("BO?", 10).isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> trie.getKeysMatching("*", 0));
+		assertThrows(IllegalArgumentException.class, () -> trie.getKeysMatching("", 1));
+
+		// when
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final Random random = new Random(23);
+		for (int i = 0; i < 3_000; ++i) {
+			final String key = Integer.toString(random.nextInt(1 << 20), 5);
+			trie.put(key, i);
+			expected.put(key, i);
+		}
+		for (final String key : Arrays.asList("BAT", "BOAT", "BOOT", "BOOST", "COAT"))
+			expected.put(key, 0);
+
+		// then
+		for (int i = 0; i < 300; ++i) {
+			final StringBuilder pattern = new StringBuilder();
+			for (int j = 1 + random.nextInt(6); j > 0; --j)
+				pattern.append("01234?*".charAt(random.nextInt(7)));
+			final Pattern regex = Pattern.compile(pattern.toString().replace("?", ".").replace("*", ".*"));
+			final List<String> matching = expected.keySet().stream()
+					.filter(key -> regex.matcher(key).matches())
+					.limit(9)
+					.collect(Collectors.toList());
+			assertEquals(matching, trie.getKeysMatching(pattern.toString(), 9), "Keys matching " + pattern);
+		}
+	}
+
+	@DisplayName("Keys matching a regular expression agree with java.util.regex")
+	@Test
+	void testGetKeysMatchingRegex() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		for (final String key : Arrays.asList("AB-100", "AB-12", "XZ-300", "XY-400", "XZ-5000"))
+			trie.put(key, key.length());
+
+		// then
+		assertEquals(Arrays.asList("AB-100", "XZ-300"), trie.getKeysMatchingRegex("(AB|XZ)-[0-9]{3}", 10));
+		assertEquals(Arrays.asList("XY-400", "XZ-300", "XZ-5000"), trie.getKeysMatchingRegex("X.-\\d+", 10));
+		assertEquals(Collections.singletonList("AB-12"), trie.getKeysMatchingRegex("[^X].*2", 10));
+		assertEquals(Arrays.asList("AB-100", "AB-12"), trie.getKeysMatchingRegex(".*", 2));
+		assertTrue(trie.getKeysMatchingRegex("AB", 10).isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> trie.getKeysMatchingRegex(".*", 0));
+		assertThrows(IllegalArgumentException.class, () -> trie.getKeysMatchingRegex("", 1));
+		assertThrows(PatternSyntaxException.class, () -> trie.getKeysMatchingRegex("(AB", 1));
+
+		// when
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final Random random = new Random(29);
+		for (int i = 0; i < 3_000; ++i) {
+			final String key = Integer.toString(random.nextInt(1 << 20), 5);
+			trie.put(key, i);
+			expected.put(key, i);
+		}
+		for (final String key : Arrays.asList("AB-100", "AB-12", "XZ-300", "XY-400", "XZ-5000"))
+			expected.put(key, 0);
+
+		// then
+		final String[] atoms = {"0", "1", "2", "3", ".", "[0-2]", "[^1]", "(0|12)", "(3|4)*", "1?", "2+", "[34]{2}",
+				"\\d{1,3}", "-"};
+		for (int i = 0; i < 300; ++i) {
+			final StringBuilder regex = new StringBuilder();
+			for (int j = 1 + random.nextInt(5); j > 0; --j)
+				regex.append(atoms[random.nextInt(atoms.length)]);
+			final Pattern pattern = Pattern.compile(regex.toString());
+			final List<String> matching = expected.keySet().stream()
+					.filter(key -> pattern.matcher(key).matches())
+					.limit(9)
+					.collect(Collectors.toList());
+			assertEquals(matching, trie.getKeysMatchingRegex(regex.toString(), 9), "Keys matching " + regex);
+		}
+	}
+
+	@DisplayName("A trie built from sorted keys is the same as one built by putting them, and stays writable")
+	@Test
+	void testBuilder() {
+		// given
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final Random random = new Random(31);
+		for (int i = 0; i < 5_000; ++i) {
+			final StringBuilder sb = new StringBuilder();
+			for (int j = 1 + random.nextInt(8); j > 0; --j) sb.append((char) ('a' + random.nextInt(4)));
+			expected.put(sb.toString(), i);
+		}
+
+		// when
+		final CompressedTrie.Builder<Integer> builder = new CompressedTrie.Builder<>();
+		expected.forEach(builder::add);
+		final CompressedTrie<Integer> built = builder.build();
+		final CompressedTrie<Integer> put = new CompressedTrie<>();
+		expected.forEach(put::put);
+
+		// then
+		assertEquals(expected.size(), built.size());
+		assertEquals(put.getCountOfNodes(), built.getCountOfNodes());
+		assertEquals(new ArrayList<>(expected.keySet()), built.keysBetween("a", "e").collect(Collectors.toList()));
+		for (final Map.Entry<String, Integer> entry : expected.entrySet()) {
+			assertEquals(entry.getValue(), built.get(entry.getKey()).orElse(null));
+			assertEquals(put.rank(entry.getKey()), built.rank(entry.getKey()));
+			assertEquals(put.countKeysWithPrefix(entry.getKey()), built.countKeysWithPrefix(entry.getKey()));
+		}
+		assertThrows(IllegalStateException.class, () -> builder.add("zzz", 1));
+		assertThrows(IllegalStateException.class, builder::build);
+
+		// when
+		for (final String key : new ArrayList<>(expected.keySet()).subList(0, 2_000)) {
+			assertEquals(put.removeAndGetPrevious(key), built.removeAndGetPrevious(key));
+			assertEquals(put.putAndGetPrevious(key + "b", 1), built.putAndGetPrevious(key + "b", 1));
+		}
+
+		// then
+		assertEquals(put.getCountOfNodes(), built.getCountOfNodes());
+		assertEquals(put.keysBetween("a", "e").collect(Collectors.toList()),
+				built.keysBetween("a", "e").collect(Collectors.toList()));
+	}
+
+	@DisplayName("A trie built in parallel from sorted entries is the same as one built sequentially")
+	@Test
+	void testBuildParallel() {
+		// given
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final Random random = new Random(37);
+		while (expected.size() < 60_000) {
+			// a few hot prefixes, so that some ranges are split deeper than others
+			final String key = random.nextInt(4) == 0
+					? "/var/log/" + random.nextInt(30) + "/" + random.nextInt(1_000)
+					: Integer.toString(random.nextInt(1 << 24), 5 + random.nextInt(3));
+			expected.put(key, expected.size());
+		}
+		expected.put("/var", -1);
+		expected.put("/var/log/1", -2);
+		final List<Map.Entry<String, Integer>> entries = new ArrayList<>(expected.entrySet());
+		final ForkJoinPool pool = new ForkJoinPool(4);
+
+		// when
+		final CompressedTrie.Builder<Integer> builder = new CompressedTrie.Builder<>();
+		entries.forEach(entry -> builder.add(entry.getKey(), entry.getValue()));
+		final CompressedTrie<Integer> sequential = builder.build();
+		final CompressedTrie<Integer> parallel = CompressedTrie.Builder.buildParallel(entries, pool);
+
+		// then
+		assertEquals(expected.size(), parallel.size());
+		assertEquals(sequential.getCountOfNodes(), parallel.getCountOfNodes());
+		final List<String> keys = new ArrayList<>();
+		parallel.forEach((key, value) -> {
+			keys.add(key);
+			assertEquals(expected.get(key), value);
+		});
+		assertEquals(new ArrayList<>(expected.keySet()), keys);
+		for (final String key : Arrays.asList("/", "/var", "/var/log/1", "/var/log/1/", "1", "40", "123"))
+			assertEquals(sequential.countKeysWithPrefix(key), parallel.countKeysWithPrefix(key), "Prefix " + key);
+
+		// when
+		for (final Map.Entry<String, Integer> entry : entries.subList(0, 5_000)) {
+			assertEquals(sequential.removeAndGetPrevious(entry.getKey()), parallel.removeAndGetPrevious(entry.getKey()));
+			assertEquals(sequential.putAndGetPrevious(entry.getKey() + "0", 0),
+					parallel.putAndGetPrevious(entry.getKey() + "0", 0));
+		}
+
+		// then
+		assertEquals(sequential.getCountOfNodes(), parallel.getCountOfNodes());
+		assertEquals(sequential.keysBetween("/", "z").collect(Collectors.toList()),
+				parallel.keysBetween("/", "z").collect(Collectors.toList()));
+
+		// when entries are out of order
+		final List<Map.Entry<String, Integer>> unsorted = new ArrayList<>(entries);
+		Collections.swap(unsorted, 10_000, 40_000);
+		final List<Map.Entry<String, Integer>> duplicated = new ArrayList<>(entries);
+		duplicated.set(30_001, duplicated.get(30_000));
+
+		// then
+		assertThrows(IllegalArgumentException.class, () -> CompressedTrie.Builder.buildParallel(unsorted, pool));
+		assertThrows(IllegalArgumentException.class, () -> CompressedTrie.Builder.buildParallel(duplicated, pool));
+		pool.shutdown();
+	}
+
+	@DisplayName("A trie of deeply nested keys is built in parallel as sequentially, without a task per character")
+	@Test
+	void testBuildParallelNestedKeys() {
+		// given
+		// every key is a prefix of the next ones, or sits next to one, far more than a partition deep
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final StringBuilder key = new StringBuilder();
+		for (int i = 0; i < 6_000; ++i) {
+			key.append('x');
+			expected.put(key.toString(), i);
+			if (i % 3 == 0) expected.put(key + "a", -i);
+		}
+		final List<Map.Entry<String, Integer>> entries = new ArrayList<>(expected.entrySet());
+		final ForkJoinPool pool = new ForkJoinPool(4);
+
+		// when
+		final CompressedTrie.Builder<Integer> builder = new CompressedTrie.Builder<>();
+		entries.forEach(entry -> builder.add(entry.getKey(), entry.getValue()));
+		final CompressedTrie<Integer> sequential = builder.build();
+		final CompressedTrie<Integer> parallel = CompressedTrie.Builder.buildParallel(entries, pool);
+
+		// then
+		assertEquals(expected.size(), parallel.size());
+		assertEquals(sequential.getCountOfNodes(), parallel.getCountOfNodes());
+		assertEquals(new ArrayList<>(expected.keySet()), parallel.keys().collect(Collectors.toList()));
+		for (final Map.Entry<String, Integer> entry : entries.subList(0, 1_000))
+			assertEquals(entry.getValue(), parallel.getOrDefault(entry.getKey(), null));
+		for (final String prefix : Arrays.asList("x", "xa", "xx", "xxxxa", "xxxxxxxxx"))
+			assertEquals(sequential.countKeysWithPrefix(prefix), parallel.countKeysWithPrefix(prefix), "Prefix " + prefix);
+
+		// when the nested keys are out of order
+		final List<Map.Entry<String, Integer>> unsorted = new ArrayList<>(entries);
+		Collections.swap(unsorted, 5_000, 5_001);
+
+		// then
+		assertThrows(IllegalArgumentException.class, () -> CompressedTrie.Builder.buildParallel(unsorted, pool));
+		pool.shutdown();
+	}
+
+	@DisplayName("A builder fails fast on keys out of order, duplicated, empty or null")
+	@Test
+	void testBuilderRejectsUnsortedKeys() {
+		// given
+		final CompressedTrie.Builder<Integer> builder = new CompressedTrie.Builder<Integer>().add("HELLO", 1).add("HELP", 2);
+
+		// then
+		assertThrows(IllegalArgumentException.class, () -> builder.add("HELM", 3));
+		assertThrows(IllegalArgumentException.class, () -> builder.add("HELP", 3));
+		assertThrows(IllegalArgumentException.class, () -> builder.add("HEL", 3));
+		assertThrows(IllegalArgumentException.class, () -> builder.add("", 3));
+		assertThrows(NullPointerException.class, () -> builder.add(null, 3));
+		assertThrows(NullPointerException.class, () -> builder.add("WORLD", null));
+
+		// when
+		final CompressedTrie<Integer> trie = builder.add("HELPER", 3).add("WORLD", 4).build();
+
+		// then
+		assertEquals(Arrays.asList("HELLO", "HELP", "HELPER"), trie.getKeysWithPrefix("HE", 10));
+		assertEquals(4, trie.size());
+		assertEquals(4, trie.get("WORLD").orElse(null));
+	}
+
 	@DisplayName("Basic `remove()` functionality test")
 	@Test
 	void testRemoveExistingWord() {
@@ -366,5 +1065,299 @@ class CompressedTrieTest {
 		}
 	}
 
+	@DisplayName("Removing a word must keep words under and above the merged node intact")
+	@Test
+	void testRemoveMergesWithoutLosingWords() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		trie.put("ab", 1);
+		trie.put("abcd", 2);
+		trie.put("abce", 3);
+		trie.put("abd", 4);
+
+		// when
+		assertEquals(4, trie.remove("abd").orElse(Integer.MIN_VALUE));
+		assertEquals(1, trie.remove("ab").orElse(Integer.MIN_VALUE));
+
+		// then
+		assertEquals(Optional.of(2), trie.get("abcd"));
+		assertEquals(Optional.of(3), trie.get("abce"));
+		assertEquals(2, trie.size());
+		assertArrayEquals(new String[]{ "abcd", "abce" }, trie.getKeysWithPrefix("a", 10).toArray());
+	}
+
+	@DisplayName("Keys returned from `getKeysWithPrefix()` contain the compressed part of every node")
+	@Test
+	void testGetKeysWithPrefixOnCompressedNodes() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		trie.put("ABC", 1);
+		trie.put("ABD", 2);
+		trie.put("ACE", 3);
+		trie.put("ACID", 4);
+		trie.put("ADIEU", 5);
+
+		// then
+		assertArrayEquals(
+				new String[]{ "ABC", "ABD", "ACE", "ACID" },
+				trie.getKeysWithPrefix("A", 4).toArray()
+		);
+		assertArrayEquals(
+				new String[]{ "ADIEU", "ACID", "ACE", "ABD" },
+				trie.getKeysWithPrefix("A", Comparator.reverseOrder(), 4).toArray()
+		);
+	}
+
+	@DisplayName("Compressed parts of nodes survive splits, merges and compaction of the shared label storage")
+	@Test
+	void testLabelsSurviveChurn() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final Random random = new Random(7);
+
+		// when, keys of same length so that no key is a prefix of another
+		for (int i = 0; i < 20_000; ++i) {
+			final StringBuilder sb = new StringBuilder();
+			for (int j = 0; j < 8; ++j) sb.append((char) ('a' + random.nextInt(3)));
+			final String key = sb.toString();
+
+			if (expected.containsKey(key)) assertEquals(expected.remove(key), trie.remove(key).orElse(null));
+			else {
+				expected.put(key, i);
+				trie.put(key, i);
+			}
+		}
+
+		// then
+		assertEquals(expected.size(), trie.size());
+		for (final String key : expected.keySet())
+			assertEquals(expected.get(key), trie.get(key).orElse(null));
+
+		final List<String> keys = new ArrayList<>(expected.headMap("b").keySet());
+		assertEquals(keys, trie.getKeysWithPrefix("a", Integer.MAX_VALUE));
+	}
+
+	@DisplayName("Keys can be looked up as any `CharSequence` or as a slice of a `char[]`")
+	@Test
+	void testGetWithCharSequenceAndCharArray() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		trie.put("hello", 1);
+		trie.put("help", 2);
+
+		// then
+		assertEquals(Optional.of(1), trie.get(new StringBuilder("hello")));
+		assertEquals(Optional.of(2), trie.get(CharBuffer.wrap("a help!", 2, 6)));
+		assertEquals(Optional.of(2), trie.get("a help!".toCharArray(), 2, 4));
+		assertFalse(trie.get("a hel!".toCharArray(), 2, 3).isPresent());
+		assertFalse(trie.get(new StringBuilder("helping")).isPresent());
+
+		// a key ending inside the compressed part of a node is absent
+		trie.put("appearance", 3);
+		assertFalse(trie.get("appear").isPresent());
+		assertFalse(trie.get(new StringBuilder("a")).isPresent());
+		assertFalse(trie.get("appearances".toCharArray(), 0, 11).isPresent());
+
+		assertThrows(NullPointerException.class, () -> trie.get((CharSequence) null));
+		assertThrows(IllegalArgumentException.class, () -> trie.get(new StringBuilder()));
+		assertThrows(NullPointerException.class, () -> trie.get(null, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> trie.get(new char[2], 1, 0));
+		assertThrows(IndexOutOfBoundsException.class, () -> trie.get(new char[2], 1, 2));
+	}
+
+	@DisplayName("A batch of keys is looked up in one walk, with the values in the order of the keys")
+	@Test
+	void testGetAll() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		trie.put("hello", 1);
+		trie.put("help", 2);
+		trie.put("helping", 3);
+		trie.put("world", 4);
+
+		// then
+		assertEquals(Arrays.asList(4, null, 1, 2, 1, null, 3, null),
+				trie.getAll(Arrays.asList("world", "hel", "hello", "help", "hello", "helpings", "helping", "worlds")));
+		assertEquals(Collections.emptyList(), trie.getAll(Collections.emptyList()));
+
+		assertThrows(NullPointerException.class, () -> trie.getAll(null));
+		assertThrows(NullPointerException.class, () -> trie.getAll(Arrays.asList("hello", null)));
+		assertThrows(IllegalArgumentException.class, () -> trie.getAll(Arrays.asList("hello", "")));
+
+		// when
+		// a batch large enough to be partitioned along the way, mixing present & absent keys
+		final Random random = new Random(7L);
+		final List<String> batch = new ArrayList<>();
+		for (int i = 0; i < 2000; ++i) {
+			final StringBuilder key = new StringBuilder();
+			final int length = 1 + random.nextInt(6);
+			for (int j = 0; j < length; ++j) key.append((char) ('a' + random.nextInt(3)));
+			if (random.nextBoolean()) trie.put(key.toString(), i);
+			batch.add(key.toString());
+		}
+
+		// then
+		final List<Integer> expected = new ArrayList<>();
+		for (final String key : batch) expected.add(trie.getOrDefault(key, null));
+		assertEquals(expected, trie.getAll(batch));
+	}
+
+	@DisplayName("Children past an outlier key which is then removed can still be added to")
+	@Test
+	void testManyChildrenAfterOutlierRemoved() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		for (int i = 0; i < 60; ++i) trie.put("k" + (char) ('a' + i), i);
+
+		// when
+		trie.put("k\u4e00", -1);
+		trie.remove("k\u4e00");
+		trie.put("k" + (char) ('a' + 60), 60);
+
+		// then
+		assertEquals(61, trie.size());
+		assertEquals(61, trie.keys().count());
+		assertEquals(61, trie.countKeysWithPrefix("k"));
+		for (int i = 0; i <= 60; ++i) assertEquals(i, trie.getOrDefault("k" + (char) ('a' + i), null));
+	}
+
+	@DisplayName("Looking up a node does not allocate")
+	@Test
+	void testFindNodeDoesNotAllocate() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		for (int i = 0; i < 1000; ++i) trie.put("key" + i, i);
+		final StringBuilder sb = new StringBuilder("key500");
+		final char[] chars = "key999".toCharArray();
+		final int[] found = { 0 };
+
+		// when
+		final long allocated = allocatedBytes(() -> {
+			for (int i = 0; i < 100_000; ++i) {
+				if (trie.findNode(sb, 0, sb.length()) != null) found[0]++;
+				if (trie.findNode(chars, 0, chars.length) != null) found[0]++;
+				if (trie.findNode("key1234", 0, 7) == null) found[0]++;
+			}
+		});
+
+		// then, allow for a constant amount allocated by the measurement itself
+		assertEquals(300_000, found[0]);
+		assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+	}
+
+	@DisplayName("Reading values without `Optional` does not allocate")
+	@Test
+	void testOptionalFreeReadsDoNotAllocate() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		for (int i = 0; i < 1000; ++i) trie.put("key" + i, i);
+		final StringBuilder sb = new StringBuilder("key500");
+		final char[] chars = "key999".toCharArray();
+		final Integer absent = -1;
+		final long[] sum = { 0 };
+
+		// when
+		final long allocated = allocatedBytes(() -> {
+			for (int i = 0; i < 100_000; ++i) {
+				sum[0] += trie.getOrDefault(sb, absent);
+				sum[0] += trie.getOrDefault(chars, 0, chars.length, absent);
+				sum[0] += trie.getOrDefault("key", absent);
+				if (trie.containsKey(sb) && !trie.containsKey("key")) sum[0]++;
+			}
+		});
+
+		// then
+		assertEquals(100_000L * (500 + 999 - 1 + 1), sum[0]);
+		assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+	}
+
+	@DisplayName("Putting an existing key replaces its value without changing the size")
+	@Test
+	void testPutReplacesValue() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+
+		// when
+		assertNull(trie.putAndGetPrevious("hello", 1));
+		assertEquals(Optional.of(1), trie.put("hello", 2));
+		assertEquals(2, trie.putAndGetPrevious("hello", 3));
+
+		// then
+		assertEquals(Optional.of(3), trie.get("hello"));
+		assertEquals(1, trie.size());
+		assertEquals(3, trie.removeAndGetPrevious("hello"));
+		assertNull(trie.removeAndGetPrevious("hello"));
+		assertEquals(0, trie.size());
+	}
+
+	@DisplayName("Functions of the `compute` family leave no extra nodes behind, even when they fail")
+	@Test
+	void testComputeLeavesNoExtraNodes() {
+		// given
+		final CompressedTrie<Integer> trie = new CompressedTrie<>();
+		trie.put("hello", 1);
+		trie.put("world", 2);
+		final long nodes = trie.getCountOfNodes();
+
+		// when
+		trie.computeIfAbsent("help", k -> null);
+		trie.compute("hel", (k, v) -> null);
+		trie.merge("hello", 1, (a, b) -> null);
+		trie.computeIfPresent("world", (k, v) -> v + 1);
+		assertThrows(IllegalStateException.class, () -> trie.compute("wordy", (k, v) -> {
+			throw new IllegalStateException();
+		}));
+
+		// then
+		assertFalse(trie.containsKey("hello"));
+		assertEquals(Optional.of(3), trie.get("world"));
+		assertEquals(1, trie.size());
+		assertEquals(nodes - 1, trie.getCountOfNodes());
+
+		trie.merge("hello", 1, Integer::sum);
+		assertEquals(nodes, trie.getCountOfNodes());
+	}
+
+	/**
+	 * Measures bytes allocated by the current thread while running the action, skips the test when the JVM can
+	 * not measure it.
+	 */
+	private static long allocatedBytes(final Runnable action) {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assumptions.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+		final long id = Thread.currentThread().getId();
+		final long before = threads.getThreadAllocatedBytes(id);
+		action.run();
+		return threads.getThreadAllocatedBytes(id) - before;
+	}
+
+	/**
+	 * Splits the spliterator until it cannot be split anymore, collecting the keys of all pieces in order.
+	 */
+	private static void splitFully(final Spliterator<String> spliterator, final List<String> keys) {
+		final Spliterator<String> prefix = spliterator.trySplit();
+		if (prefix != null) {
+			splitFully(prefix, keys);
+			splitFully(spliterator, keys);
+		} else spliterator.forEachRemaining(keys::add);
+	}
+
+	/**
+	 * Levenshtein distance of the strings, from the full table of distances of their prefixes.
+	 */
+	private static int editDistance(final String a, final String b) {
+		final int[][] distances = new int[a.length() + 1][b.length() + 1];
+		for (int i = 0; i <= a.length(); ++i)
+			for (int j = 0; j <= b.length(); ++j)
+				distances[i][j] = i == 0 || j == 0 ? i + j : Math.min(
+						Math.min(distances[i - 1][j], distances[i][j - 1]) + 1,
+						distances[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1));
+
+		return distances[a.length()][b.length()];
+	}
 
-}
\ No newline at end of file
+}
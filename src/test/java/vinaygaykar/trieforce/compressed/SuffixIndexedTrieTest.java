@@ -0,0 +1,103 @@
+package vinaygaykar.trieforce.compressed;
+
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class SuffixIndexedTrieTest {
+
+	@DisplayName("Basic suffix & substring search functionality test")
+	@Test
+	void testSuffixAndSubstringSearch() {
+		// given
+		final SuffixIndexedTrie<Integer> trie = new SuffixIndexedTrie<>();
+		for (final String key : Arrays.asList("app.log", "sys.log", "catalog", "log", "logger", "blog.md"))
+			trie.put(key, key.length());
+
+		// then
+		assertEquals(Arrays.asList("app.log", "sys.log"), trie.getKeysWithSuffix(".log", 10));
+		assertEquals(Arrays.asList("app.log", "catalog"), trie.getKeysWithSuffix("log", 2));
+		assertEquals(Arrays.asList("app.log", "blog.md", "catalog", "log", "logger", "sys.log"),
+				trie.getKeysContaining("log", 10));
+		assertEquals(Collections.singletonList("logger"), trie.getKeysContaining("gg", 10));
+		assertTrue(trie.getKeysWithSuffix("md.", 10).isEmpty());
+		assertTrue(trie.getKeysContaining("xyz", 10).isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> trie.getKeysWithSuffix("log", 0));
+		assertThrows(IllegalArgumentException.class, () -> trie.getKeysContaining("", 1));
+		assertThrows(NullPointerException.class, () -> trie.getKeysContaining(null, 1));
+
+		// when
+		trie.remove("app.log");
+		trie.compute("catalog", (k, v) -> null);
+		trie.computeIfAbsent("dialog", String::length);
+		trie.put("log", 0);
+
+		// then
+		assertEquals(Arrays.asList("dialog", "log", "sys.log"), trie.getKeysWithSuffix("log", 10));
+		assertEquals(Arrays.asList("blog.md", "dialog", "log", "logger", "sys.log"), trie.getKeysContaining("log", 10));
+		assertEquals(5, trie.size());
+	}
+
+	@DisplayName("Suffix & substring search agree with a scan of all keys, after all kinds of writes")
+	@Test
+	void testSearchAfterWrites() {
+		// given
+		final SuffixIndexedTrie<Integer> trie = new SuffixIndexedTrie<>();
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final Random random = new Random(17);
+
+		for (int i = 0; i < 5_000; ++i) {
+			final String key = randomString(random, 1 + random.nextInt(7));
+
+			// when
+			switch (random.nextInt(4)) {
+				case 0:
+					assertEquals(expected.remove(key), trie.removeAndGetPrevious(key));
+					break;
+				case 1:
+					assertEquals(expected.computeIfPresent(key, (k, v) -> v % 2 == 0 ? null : v + 1),
+							trie.computeIfPresent(key, (k, v) -> v % 2 == 0 ? null : v + 1).orElse(null));
+					break;
+				case 2:
+					assertEquals(expected.putIfAbsent(key, i), trie.putIfAbsent(key, i).orElse(null));
+					break;
+				default:
+					assertEquals(expected.put(key, i), trie.putAndGetPrevious(key, i));
+			}
+
+			// then
+			if (i % 50 == 0) {
+				final String part = randomString(random, 1 + random.nextInt(3));
+				final List<String> ending = expected.keySet().stream()
+						.filter(k -> k.endsWith(part))
+						.limit(7)
+						.collect(Collectors.toList());
+				final List<String> containing = expected.keySet().stream()
+						.filter(k -> k.contains(part))
+						.limit(7)
+						.collect(Collectors.toList());
+				assertEquals(ending, trie.getKeysWithSuffix(part, 7), "Keys ending with " + part);
+				assertEquals(containing, trie.getKeysContaining(part, 7), "Keys containing " + part);
+			}
+		}
+	}
+
+	private static String randomString(final Random random, final int length) {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; ++i) sb.append((char) ('a' + random.nextInt(3)));
+		return sb.toString();
+	}
+
+}
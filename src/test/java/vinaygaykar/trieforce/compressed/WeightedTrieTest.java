@@ -0,0 +1,113 @@
+package vinaygaykar.trieforce.compressed;
+
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class WeightedTrieTest {
+
+	@DisplayName("Basic top-K functionality test")
+	@Test
+	void testGetTopKeysWithPrefix() {
+		// given
+		final WeightedTrie<Integer> trie = new WeightedTrie<>(Integer::doubleValue);
+		trie.put("HELLO", 10);
+		trie.put("HELP", 30);
+		trie.put("HELM", 20);
+		trie.put("HE", 25);
+		trie.put("WORLD", 40);
+
+		// then
+		assertEquals(Arrays.asList("HELP", "HE", "HELM"), trie.getTopKeysWithPrefix("H", 3));
+		assertEquals(Arrays.asList("HELP", "HELM", "HELLO"), trie.getTopKeysWithPrefix("HEL", 5));
+		assertEquals(Arrays.asList("WORLD"), trie.getTopKeysWithPrefix("WOR", 5));
+		assertTrue(trie.getTopKeysWithPrefix("X", 5).isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> trie.getTopKeysWithPrefix("H", 0));
+		assertThrows(IllegalArgumentException.class, () -> trie.getTopKeysWithPrefix("", 1));
+
+		// when weights change
+		trie.put("HELP", 1);
+		trie.remove("HE");
+		trie.merge("HELLO", 50, Integer::sum);
+
+		// then
+		assertEquals(Arrays.asList("HELLO", "HELM", "HELP"), trie.getTopKeysWithPrefix("H", 3));
+	}
+
+	@DisplayName("Top-K keys agree with sorting all keys by weight, after all kinds of writes")
+	@Test
+	void testTopKeysAfterWrites() {
+		// given
+		final WeightedTrie<Integer> trie = new WeightedTrie<>(Integer::doubleValue);
+		final TreeMap<String, Integer> expected = new TreeMap<>();
+		final Random random = new Random(13);
+
+		for (int i = 0; i < 5_000; ++i) {
+			final StringBuilder sb = new StringBuilder();
+			for (int j = 1 + random.nextInt(6); j > 0; --j) sb.append((char) ('a' + random.nextInt(3)));
+			final String key = sb.toString();
+			// distinct yet shuffled weights, so that the order of the top keys is well defined
+			final int weight = (int) (i * 7_919L % 1_000_003);
+
+			// when
+			switch (random.nextInt(5)) {
+				case 0:
+					assertEquals(expected.remove(key), trie.removeAndGetPrevious(key));
+					break;
+				case 1:
+					assertEquals(expected.computeIfPresent(key, (k, v) -> v % 2 == 0 ? null : weight),
+							trie.computeIfPresent(key, (k, v) -> v % 2 == 0 ? null : weight).orElse(null));
+					break;
+				case 2:
+					assertEquals(expected.putIfAbsent(key, weight), trie.putIfAbsent(key, weight).orElse(null));
+					break;
+				default:
+					assertEquals(expected.put(key, weight), trie.putAndGetPrevious(key, weight));
+			}
+
+			// then
+			final String prefix = key.substring(0, 1 + random.nextInt(key.length()));
+			final List<String> top = expected.subMap(prefix, prefix + Character.MAX_VALUE).entrySet().stream()
+					.sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+					.limit(5)
+					.map(Map.Entry::getKey)
+					.collect(Collectors.toList());
+			assertEquals(top, trie.getTopKeysWithPrefix(prefix, 5), "Top keys with prefix " + prefix);
+		}
+	}
+
+	@DisplayName("Top-K search only expands the subtrees leading to the returned keys")
+	@Test
+	void testTopKeysVisitFewNodes() {
+		// given
+		final int[] weighed = { 0 };
+		final WeightedTrie<Integer> trie = new WeightedTrie<>(value -> {
+			weighed[0]++;
+			return value;
+		});
+		final Random random = new Random(17);
+		for (int i = 0; i < 20_000; ++i)
+			trie.put("a" + Integer.toString(random.nextInt(1 << 30), 36), random.nextInt());
+
+		// when
+		weighed[0] = 0;
+		final List<String> top = trie.getTopKeysWithPrefix("a", 10);
+
+		// then, only the keys on the paths to the top keys are weighed
+		assertEquals(10, top.size());
+		assertTrue(weighed[0] <= 10 * 7, "Weighed " + weighed[0] + " keys");
+	}
+
+}